@@ -0,0 +1,163 @@
+package ait.cohort51.g_51_security_jwt.benchmark;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.security.AuthUserDetails;
+import ait.cohort51.g_51_security_jwt.security.filter.AuthenticationMode;
+import ait.cohort51.g_51_security_jwt.security.filter.TokenFilter;
+import ait.cohort51.g_51_security_jwt.security.service.RevocationRegistry;
+import ait.cohort51.g_51_security_jwt.security.service.SigningAlgorithm;
+import ait.cohort51.g_51_security_jwt.security.service.TokenService;
+import ait.cohort51.g_51_security_jwt.security.service.TokenVerification;
+import ait.cohort51.g_51_security_jwt.security.service.UserService;
+import ait.cohort51.g_51_security_jwt.security.service.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Бенчмарки выдачи и проверки токенов и TokenFilter.
+// Запуск: mvn -Pjmh test-compile exec:exec@jmh
+// Профайлер gc добавляет gc.alloc.rate.norm - байты, выделяемые на одну операцию.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthHotPathBenchmark {
+
+    private static final String ACCESS_PHRASE = "wNFuHjcqszGQdYqEYs7r/yMBJ8kIlWSpA6vX8asTA70=";
+    private static final String REFRESH_PHRASE = "Sg7YpytnEVjB6gGN5IT6jKkC/0YDmDbo9vxYBt0Zm48=";
+    private static final Duration ACCESS_TTL = Duration.ofHours(24);
+    private static final String USERNAME = "user@test.com";
+
+    @State(Scope.Benchmark)
+    public static class TokenState {
+
+        @Param({"30"})
+        private int cookieCount;
+
+        @Param({"HMAC", "ES256", "EDDSA"})
+        private SigningAlgorithm algorithm;
+
+        private TokenService tokenService;
+        private String accessToken;
+        private MockHttpServletRequest request;
+
+        @Setup
+        public void setUp() {
+            tokenService = new TokenService(BenchmarkAccessTokenKeys.ephemeral(ACCESS_PHRASE, algorithm), REFRESH_PHRASE, ACCESS_TTL);
+            accessToken = tokenService.generateAccessToken(USERNAME, 1L, Role.ROLE_USER);
+            request = requestWithCookies(cookieCount, accessToken);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilterState {
+
+        @Param({"CLAIMS", "DATABASE"})
+        private AuthenticationMode mode;
+
+        @Param({"false", "true"})
+        private boolean tokenCacheEnabled;
+
+        // Сколько посторонних токенов уже отозвано: 0 - реестр пуст, иначе работает фильтр Блума
+        @Param({"0", "10000"})
+        private int revokedTokens;
+
+        private TokenFilter tokenFilter;
+        private MockHttpServletRequest request;
+        private MockHttpServletResponse response;
+        private FilterChain chain;
+
+        @Setup
+        public void setUp() {
+            TokenService tokenService = new TokenService(BenchmarkAccessTokenKeys.hmac(ACCESS_PHRASE), REFRESH_PHRASE, ACCESS_TTL);
+            VerifiedTokenCache tokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), tokenCacheEnabled, 10_000);
+            RevocationRegistry revocationRegistry = new RevocationRegistry(100_000, 0.001);
+            long expiresAt = System.currentTimeMillis() + ACCESS_TTL.toMillis();
+            for (int i = 0; i < revokedTokens; i++) {
+                revocationRegistry.revoke(UUID.randomUUID().toString(), expiresAt);
+            }
+            tokenFilter = new TokenFilter(
+                    tokenService, new StubUserService(tokenCache), tokenCache,
+                    revocationRegistry, mode, new SimpleMeterRegistry()
+            );
+
+            request = requestWithCookies(10, tokenService.generateAccessToken(USERNAME, 1L, Role.ROLE_USER));
+            response = new MockHttpServletResponse();
+            chain = (req, res) -> {
+            };
+        }
+    }
+
+    @Benchmark
+    public String generateAccessToken(TokenState state) {
+        return state.tokenService.generateAccessToken(USERNAME, 1L, Role.ROLE_USER);
+    }
+
+    // Прежний путь: две полные проверки подписи
+    @Benchmark
+    public Claims validateThenGetClaims(TokenState state) {
+        if (state.tokenService.validateAccessToken(state.accessToken)) {
+            return state.tokenService.getAccessClaims(state.accessToken);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public TokenVerification verifyAccessToken(TokenState state) {
+        return state.tokenService.verifyAccessToken(state.accessToken);
+    }
+
+    @Benchmark
+    public String getTokenFromRequest(TokenState state) {
+        return state.tokenService.getTokenFromRequest(state.request, "Access-Token");
+    }
+
+    @Benchmark
+    public Object doFilter(FilterState state) throws Exception {
+        try {
+            state.tokenFilter.doFilter(state.request, state.response, state.chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Access-Token кладём последним, чтобы поиск прошёл по всем кукам
+    private static MockHttpServletRequest requestWithCookies(int cookieCount, String accessToken) {
+        Cookie[] cookies = new Cookie[cookieCount];
+        for (int i = 0; i < cookieCount - 1; i++) {
+            cookies[i] = new Cookie("cookie-" + i, "value-" + i);
+        }
+        cookies[cookieCount - 1] = new Cookie("Access-Token", accessToken);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/1");
+        request.setCookies(cookies);
+        return request;
+    }
+
+    // Заглушка вместо обращения к базе
+    private static class StubUserService extends UserService {
+
+        private final UserDetails user = new AuthUserDetails(1L, USERNAME, null, Role.ROLE_USER);
+
+        private StubUserService(VerifiedTokenCache tokenCache) {
+            super(null, tokenCache, new SimpleMeterRegistry(), false, Duration.ofMinutes(1), 1);
+        }
+
+        @Override
+        public UserDetails loadUserByUsername(String username) {
+            return user;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ait.cohort51.g_51_security_jwt.benchmark;
+
+import ait.cohort51.g_51_security_jwt.security.service.AccessTokenKeys;
+import ait.cohort51.g_51_security_jwt.security.service.SigningAlgorithm;
+import ait.cohort51.g_51_security_jwt.security.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Ключи подписи для бенчмарков: без файла ключей, пара ES256/EdDSA генерируется при старте
+final class BenchmarkAccessTokenKeys {
+
+    private BenchmarkAccessTokenKeys() {
+    }
+
+    static AccessTokenKeys hmac(String accessPhrase) {
+        return ephemeral(accessPhrase, SigningAlgorithm.HMAC);
+    }
+
+    static AccessTokenKeys ephemeral(String accessPhrase, SigningAlgorithm algorithm) {
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), false, 1);
+        return new AccessTokenKeys(tokenCache, accessPhrase, algorithm, "", null, "");
+    }
+}
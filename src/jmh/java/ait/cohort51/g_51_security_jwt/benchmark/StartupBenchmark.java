@@ -0,0 +1,157 @@
+package ait.cohort51.g_51_security_jwt.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Время старта и задержка первых запросов: обычный jar, Spring AOT + CDS и нативный образ.
+// Сборка вариантов: mvn -DskipTests package, mvn -Pcds -DskipTests package, mvn -Pnative -DskipTests native:compile
+// Запуск: mvn -Pjmh test-compile exec:exec@startup
+// Несобранные варианты пропускаются. Приложению нужна база, как при обычном запуске.
+// Порт и число запусков: STARTUP_PORT, STARTUP_RUNS.
+// Логин измеряется, если заданы STARTUP_USERNAME и STARTUP_PASSWORD.
+public class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final String JAR = System.getProperty("startup.jar", "g_51_security_jwt-0.0.1-SNAPSHOT.jar");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private record Variant(String name, Path workingDirectory, Path executable, List<String> command) {
+    }
+
+    private record Run(long startupMillis, long firstProductsMillis, long firstLoginMillis) {
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private final int port = Integer.parseInt(env("STARTUP_PORT", "8099"));
+    private final int runs = Integer.parseInt(env("STARTUP_RUNS", "5"));
+    private final String username = System.getenv("STARTUP_USERNAME");
+    private final String password = System.getenv("STARTUP_PASSWORD");
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    private void run() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Variant> variants = List.of(
+                new Variant("jvm", TARGET, TARGET.resolve(JAR),
+                        List.of(java, "-jar", JAR)),
+                new Variant("aot+cds", TARGET.resolve("cds"), TARGET.resolve("cds").resolve("application.jsa"),
+                        List.of(java, "-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true", "-jar", JAR)),
+                new Variant("native", TARGET, TARGET.resolve("g_51_security_jwt"),
+                        List.of("./g_51_security_jwt"))
+        );
+
+        System.out.printf("%-8s %6s %14s %14s %14s%n", "variant", "runs", "startup, ms", "products, ms", "login, ms");
+        for (Variant variant : variants) {
+            if (!Files.exists(variant.executable())) {
+                System.out.printf("%-8s skipped: %s not found%n", variant.name(), variant.executable());
+                continue;
+            }
+            List<Run> results = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                results.add(measure(variant));
+            }
+            System.out.printf("%-8s %6d %14s %14s %14s%n", variant.name(), runs,
+                    median(results.stream().mapToLong(Run::startupMillis).toArray()),
+                    median(results.stream().mapToLong(Run::firstProductsMillis).toArray()),
+                    username == null ? "-" : median(results.stream().mapToLong(Run::firstLoginMillis).toArray()));
+        }
+    }
+
+    // Старт считается от запуска процесса до первого 200 от /actuator/health
+    private Run measure(Variant variant) throws Exception {
+        List<String> command = new ArrayList<>(variant.command());
+        command.add("--server.port=" + port);
+        Process process = new ProcessBuilder(command)
+                .directory(variant.workingDirectory().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long start = System.nanoTime();
+            waitForHealth(process, start);
+            long startup = System.nanoTime() - start;
+
+            long products = time(get("/products"));
+            long login = username == null ? 0 : time(post("/auth/login",
+                    "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"));
+            return new Run(toMillis(startup), toMillis(products), toMillis(login));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private void waitForHealth(Process process, long start) throws Exception {
+        HttpRequest health = get("/actuator/health");
+        while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Порт ещё не открыт
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Application did not become healthy in " + STARTUP_TIMEOUT);
+    }
+
+    private long time(HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+        return elapsed;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,31 @@
+package ait.cohort51.g_51_security_jwt;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Отдельная точка входа для миграций: поднимает только DataSource и Liquibase,
+// применяет changelog-master.xml и завершается. Реплики запускаются с LIQUIBASE_ENABLED=false.
+// Запуск: java -cp app.jar -Dloader.main=ait.cohort51.g_51_security_jwt.MigrationRunner org.springframework.boot.loader.launch.PropertiesLauncher
+// Класс намеренно без @Configuration: компонент-скан приложения его не подхватывает.
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, LiquibaseAutoConfiguration.class})
+public class MigrationRunner {
+
+    public static void main(String[] args) {
+        // Аргумент командной строки перекрывает LIQUIBASE_ENABLED=false из окружения реплик
+        String[] arguments = Stream.concat(Stream.of("--spring.liquibase.enabled=true"), Arrays.stream(args))
+                .toArray(String[]::new);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MigrationRunner.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments);
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,74 @@
+package ait.cohort51.g_51_security_jwt;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Когда Liquibase при старте отключён, сверяем версию схемы одним запросом к databasechangelog:
+// ни разбора changelog, ни блокировки databasechangeloglock.
+// Флаг читается через @Value, а не @ConditionalOnProperty, чтобы под AOT (профиль cds) он работал в рантайме.
+@Component
+public class SchemaVersionCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaVersionCheck.class);
+
+    private static final String LATEST_TAG_SQL =
+            "SELECT tag FROM databasechangelog WHERE tag IS NOT NULL ORDER BY orderexecuted DESC LIMIT 1";
+
+    // IGNORE не ходит в базу вовсе, например в тренировочном запуске CDS
+    public enum OnMismatch {
+        FAIL, WARN, IGNORE
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean liquibaseEnabled;
+    private final String expectedVersion;
+    private final OnMismatch onMismatch;
+
+    public SchemaVersionCheck(
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.liquibase.enabled:true}") boolean liquibaseEnabled,
+            @Value("${migration.schema-version}") String expectedVersion,
+            @Value("${migration.on-mismatch:fail}") OnMismatch onMismatch
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.liquibaseEnabled = liquibaseEnabled;
+        this.expectedVersion = expectedVersion;
+        this.onMismatch = onMismatch;
+    }
+
+    @PostConstruct
+    public void check() {
+        if (liquibaseEnabled || onMismatch == OnMismatch.IGNORE) {
+            return;
+        }
+        String actualVersion = currentVersion();
+        if (expectedVersion.equals(actualVersion)) {
+            log.info("Database schema version {} matches, migrations skipped", actualVersion);
+            return;
+        }
+        String message = "Database schema version is " + actualVersion + ", expected " + expectedVersion
+                + ". Run migrations with MigrationRunner";
+        if (onMismatch == OnMismatch.FAIL) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    // null - схема ещё не размечена тегом или таблицы Liquibase нет
+    String currentVersion() {
+        try {
+            List<String> tags = jdbcTemplate.queryForList(LATEST_TAG_SQL, String.class);
+            return tags.isEmpty() ? null : tags.get(0);
+        } catch (DataAccessException e) {
+            log.debug("Cannot read databasechangelog", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ait.cohort51.g_51_security_jwt.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+// Общий таймаут асинхронных ответов задаёт spring.mvc.async.request-timeout.
+// Обработчик может переопределить его для своего запроса, положив Duration в атрибут TIMEOUT_ATTRIBUTE
+// (например, потоковая выгрузка каталога). Duration.ZERO - без таймаута.
+// Таймаут применяется до старта асинхронной обработки, поэтому работает и для StreamingResponseBody.
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutConfig.class.getName() + ".timeout";
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new TimeoutInterceptor());
+    }
+
+    static class TimeoutInterceptor implements CallableProcessingInterceptor {
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (timeout instanceof Duration duration && request instanceof AsyncWebRequest asyncRequest) {
+                // Для AsyncContext значение 0 и меньше означает "без таймаута"
+                asyncRequest.setTimeout(duration.isZero() ? -1 : duration.toMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ait.cohort51.g_51_security_jwt.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+// Два пула Hikari: primary для записи и replica для read-only транзакций.
+// JPA и JdbcTemplate получают LazyConnectionDataSourceProxy: физическое соединение берётся
+// только на первом запросе, когда флаг readOnly транзакции уже известен, и из нужного пула.
+// Метрики hikaricp.* у каждого пула свои, с тегом pool (pool-name).
+// Без REPLICA_DATASOURCE_URL replica смотрит в ту же базу: чтения всё равно не ждут в очереди за записью.
+@Configuration
+public class DataSourceConfig {
+
+    // Миграции идут напрямую в primary, минуя прокси
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource
+    ) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        // Значения по умолчанию заданы явно, иначе прокси возьмёт соединение из пула ради их чтения
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+}
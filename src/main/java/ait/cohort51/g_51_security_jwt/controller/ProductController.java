@@ -1,10 +1,27 @@
 package ait.cohort51.g_51_security_jwt.controller;
 
+import ait.cohort51.g_51_security_jwt.config.AsyncTimeoutConfig;
 import ait.cohort51.g_51_security_jwt.domain.Product;
+import ait.cohort51.g_51_security_jwt.dto.ProductBatchResult;
+import ait.cohort51.g_51_security_jwt.dto.ProductFilter;
+import ait.cohort51.g_51_security_jwt.dto.ProductImportReport;
+import ait.cohort51.g_51_security_jwt.dto.ProductSnapshot;
+import ait.cohort51.g_51_security_jwt.dto.ProductView;
+import ait.cohort51.g_51_security_jwt.service.ProductImportService;
 import ait.cohort51.g_51_security_jwt.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -12,9 +29,17 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService importService;
+    private final Duration exportTimeout;
 
-    public ProductController(ProductService productService) {
+    public ProductController(
+            ProductService productService,
+            ProductImportService importService,
+            @Value("${products.export.timeout:30m}") Duration exportTimeout
+    ) {
         this.productService = productService;
+        this.importService = importService;
+        this.exportTimeout = exportTimeout;
     }
 
     //доступ даем пользователю с ролью ADMIN
@@ -24,16 +49,60 @@ public class ProductController {
         return productService.save(product);
     }
 
+    //доступ даем пользователю с ролью ADMIN
+    @PostMapping("/batch")
+    public List<ProductBatchResult> saveAll(@RequestBody List<Product> products) {
+        return productService.saveAll(products);
+    }
+
+    //доступ даем пользователю с ролью ADMIN
+    // DELETE /products/batch?ids=1,2,3
+    @DeleteMapping("/batch")
+    public List<ProductBatchResult> deleteAll(@RequestParam List<Long> ids) {
+        return productService.deleteAllById(ids);
+    }
+
+    //доступ даем пользователю с ролью ADMIN
+    // Тело запроса - CSV title,price, читается потоком без загрузки файла в память
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ProductImportReport importCsv(InputStream body) throws IOException {
+        return importService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
     // доступ даем анонимным пользователям
+    // GET /products?afterId=100&limit=50&minPrice=10&maxPrice=20&titlePrefix=app
+    // id последнего продукта страницы приходит в заголовке X-Next-After-Id,
+    // пустая страница означает, что продуктов больше нет
     @GetMapping
-    public List<Product> getAll() {
-        return productService.getAll();
+    public ResponseEntity<List<ProductView>> getAll(ProductFilter filter) {
+        ProductSnapshot<List<ProductView>> page = productService.getPage(filter);
+        List<ProductView> products = page.body();
+
+        // Если ETag совпал с If-None-Match, Spring сам ответит 304 без сериализации тела
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(page.eTag());
+        if (!products.isEmpty()) {
+            response.header("X-Next-After-Id", String.valueOf(products.get(products.size() - 1).id()));
+        }
+        return response.body(products);
+    }
+
+    // доступ даем пользователям с ролью USER, ADMIN
+    // Весь каталог одним потоком NDJSON, строки читаются курсором и сразу пишутся в ответ.
+    // Общий асинхронный таймаут оборвал бы большую выгрузку, у неё свой - products.export.timeout
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(HttpServletRequest request) {
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, exportTimeout);
+        StreamingResponseBody body = productService::exportAll;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     // доступ даем пользователям с ролью USER, ADMIN
     @GetMapping("/{id}")
-    public Product getById(@PathVariable Long id) {
-        return productService.getById(id);
+    public ResponseEntity<ProductView> getById(@PathVariable Long id) {
+        ProductSnapshot<ProductView> product = productService.getById(id);
+        return ResponseEntity.ok().eTag(product.eTag()).body(product.body());
     }
 
     //доступ даем пользователю с ролью ADMIN
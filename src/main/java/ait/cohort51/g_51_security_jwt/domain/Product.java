@@ -9,8 +9,14 @@ import java.util.Objects;
 @Table(name = "product")
 public class Product {
 
+    // Совпадает с incrementBy последовательности product_seq в миграции
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // IDENTITY не даёт Hibernate группировать insert'ы в batch,
+    // с последовательностью id выдаются заранее пачками по 50
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
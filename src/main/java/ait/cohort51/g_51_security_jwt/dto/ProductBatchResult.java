@@ -0,0 +1,83 @@
+package ait.cohort51.g_51_security_jwt.dto;
+
+import java.util.Objects;
+
+// Результат обработки одного элемента пакетного запроса
+public class ProductBatchResult {
+
+    public enum Status {
+        CREATED,
+        DELETED,
+        NOT_FOUND,
+        REJECTED
+    }
+
+    private int index;
+    private Long id;
+    private Status status;
+    private String message;
+
+    public ProductBatchResult() {
+    }
+
+    public ProductBatchResult(int index, Long id, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductBatchResult that = (ProductBatchResult) o;
+        return index == that.index && Objects.equals(id, that.id) && status == that.status && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, id, status, message);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductBatchResult{" +
+                "index=" + index +
+                ", id=" + id +
+                ", status=" + status +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
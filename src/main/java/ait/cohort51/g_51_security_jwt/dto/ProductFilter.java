@@ -0,0 +1,81 @@
+package ait.cohort51.g_51_security_jwt.dto;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+// Параметры постраничного (keyset) запроса списка продуктов.
+// afterId - id последнего продукта предыдущей страницы.
+public class ProductFilter {
+
+    private Long afterId;
+    private Integer limit;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String titlePrefix;
+
+    public ProductFilter() {
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getTitlePrefix() {
+        return titlePrefix;
+    }
+
+    public void setTitlePrefix(String titlePrefix) {
+        this.titlePrefix = titlePrefix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductFilter that = (ProductFilter) o;
+        return Objects.equals(afterId, that.afterId) && Objects.equals(limit, that.limit) && Objects.equals(minPrice, that.minPrice) && Objects.equals(maxPrice, that.maxPrice) && Objects.equals(titlePrefix, that.titlePrefix);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(afterId, limit, minPrice, maxPrice, titlePrefix);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductFilter{" +
+                "afterId=" + afterId +
+                ", limit=" + limit +
+                ", minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", titlePrefix='" + titlePrefix + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+package ait.cohort51.g_51_security_jwt.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Итог импорта CSV. Подробности сохраняются только для первых отклонённых строк,
+// чтобы отчёт не рос вместе с размером файла.
+public class ProductImportReport {
+
+    private long processedRows;
+    private long importedRows;
+    private long rejectedRows;
+    private List<RejectedRow> rejected = new ArrayList<>();
+
+    public ProductImportReport() {
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(long rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public List<RejectedRow> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<RejectedRow> rejected) {
+        this.rejected = rejected;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductImportReport that = (ProductImportReport) o;
+        return processedRows == that.processedRows && importedRows == that.importedRows && rejectedRows == that.rejectedRows && Objects.equals(rejected, that.rejected);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(processedRows, importedRows, rejectedRows, rejected);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductImportReport{" +
+                "processedRows=" + processedRows +
+                ", importedRows=" + importedRows +
+                ", rejectedRows=" + rejectedRows +
+                ", rejected=" + rejected +
+                '}';
+    }
+
+    public static class RejectedRow {
+
+        private long line;
+        private String reason;
+
+        public RejectedRow() {
+        }
+
+        public RejectedRow(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            RejectedRow that = (RejectedRow) o;
+            return line == that.line && Objects.equals(reason, that.reason);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(line, reason);
+        }
+
+        @Override
+        public String toString() {
+            return "RejectedRow{" +
+                    "line=" + line +
+                    ", reason='" + reason + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package ait.cohort51.g_51_security_jwt.dto;
+
+// Закэшированный ответ чтения вместе с ETag. ETag считается один раз при загрузке в кэш,
+// поэтому попадание в кэш и ответ 304 не требуют ни обхода списка, ни хэширования.
+public record ProductSnapshot<T>(T body, String eTag) {
+}
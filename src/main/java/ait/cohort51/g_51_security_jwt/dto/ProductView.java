@@ -0,0 +1,8 @@
+package ait.cohort51.g_51_security_jwt.dto;
+
+import java.math.BigDecimal;
+
+// Продукт для чтения: выбирается JPQL-выражением конструктора, минуя persistence context,
+// неизменяем и поэтому безопасен для ProductCache. JSON совпадает с сущностью Product.
+public record ProductView(Long id, String title, BigDecimal price) {
+}
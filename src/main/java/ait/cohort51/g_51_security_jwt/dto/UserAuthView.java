@@ -0,0 +1,7 @@
+package ait.cohort51.g_51_security_jwt.dto;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+
+// Только колонки, нужные аутентификации; name не читается
+public record UserAuthView(Long id, String email, String password, Role role) {
+}
@@ -0,0 +1,79 @@
+package ait.cohort51.g_51_security_jwt.repository;
+
+import ait.cohort51.g_51_security_jwt.domain.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Построчное чтение таблицы product через курсор JDBC, без загрузки всей таблицы в память.
+// PostgreSQL использует курсор только при fetchSize > 0 и выключенном autocommit,
+// поэтому методы нужно вызывать внутри транзакции.
+@Repository
+public class ProductJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductJdbcRepository(
+            DataSource dataSource,
+            @Value("${products.export.fetch-size:500}") int fetchSize
+    ) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void forEach(Consumer<Product> action) {
+        jdbcTemplate.query("SELECT id, title, price FROM product ORDER BY id", resultSet -> {
+            Product product = new Product();
+            product.setId(resultSet.getLong("id"));
+            product.setTitle(resultSet.getString("title"));
+            product.setPrice(resultSet.getBigDecimal("price"));
+            action.accept(product);
+        });
+    }
+
+    // Upsert по уникальному title. id выдаются диапазонами, как у pooled-генератора Hibernate:
+    // каждое значение nextval - верхняя граница диапазона из ID_ALLOCATION_SIZE id, поэтому с id,
+    // которые выдаёт Hibernate, они не пересекаются. Один nextval на ID_ALLOCATION_SIZE строк пачки,
+    // а не на каждую строку; id строк, ушедших в DO UPDATE, просто не используются.
+    public int[] upsertBatch(List<String> titles, List<BigDecimal> prices) {
+        List<Long> ids = allocateIds(titles.size());
+        return jdbcTemplate.batchUpdate(
+                "INSERT INTO product (id, title, price) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (title) DO UPDATE SET price = EXCLUDED.price",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        statement.setLong(1, ids.get(i));
+                        statement.setString(2, titles.get(i));
+                        statement.setBigDecimal(3, prices.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return titles.size();
+                    }
+                }
+        );
+    }
+
+    List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            Long high = jdbcTemplate.queryForObject("SELECT nextval('product_seq')", Long.class);
+            // Первое значение новой последовательности меньше размера диапазона - id не бывают меньше 1
+            for (long id = Math.max(1, high - Product.ID_ALLOCATION_SIZE + 1); id <= high && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
@@ -1,7 +1,47 @@
 package ait.cohort51.g_51_security_jwt.repository;
 
 import ait.cohort51.g_51_security_jwt.domain.Product;
+import ait.cohort51.g_51_security_jwt.dto.ProductView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Методы чтения возвращают ProductView: записи не попадают в persistence context
+// и не проверяются при flush. readOnly - запрос уходит в пул replica.
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Transactional(readOnly = true)
+    @Query("select new ait.cohort51.g_51_security_jwt.dto.ProductView(p.id, p.title, p.price) " +
+            "from Product p where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    // Keyset-пагинация: вместо OFFSET продолжаем с id последней отданной записи.
+    // titlePattern уже экранирован символом '!' и заканчивается на '%'.
+    @Query("select new ait.cohort51.g_51_security_jwt.dto.ProductView(p.id, p.title, p.price) from Product p " +
+            "where p.id > :afterId " +
+            "and (:minPrice is null or p.price >= :minPrice) " +
+            "and (:maxPrice is null or p.price <= :maxPrice) " +
+            "and (:titlePattern is null or p.title like :titlePattern escape '!') " +
+            "order by p.id")
+    @Transactional(readOnly = true)
+    List<ProductView> findPage(
+            @Param("afterId") long afterId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("titlePattern") String titlePattern,
+            Pageable pageable
+    );
+
+    @Query("select p.title from Product p where p.title in :titles")
+    List<String> findExistingTitles(@Param("titles") Collection<String> titles);
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,11 +1,29 @@
 package ait.cohort51.g_51_security_jwt.repository;
 
 import ait.cohort51.g_51_security_jwt.domain.User;
+import ait.cohort51.g_51_security_jwt.dto.UserAuthView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // readOnly - запрос уходит в пул replica
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
+
+    // Выражение конструктора: без управляемой сущности и dirty checking
+    @Transactional(readOnly = true)
+    @Query("select new ait.cohort51.g_51_security_jwt.dto.UserAuthView(u.id, u.email, u.password, u.role) " +
+            "from User u where u.email = :email")
+    Optional<UserAuthView> findAuthViewByEmail(@Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
@@ -1,6 +1,8 @@
 package ait.cohort51.g_51_security_jwt.security;
 
+import ait.cohort51.g_51_security_jwt.domain.Role;
 import ait.cohort51.g_51_security_jwt.domain.User;
+import ait.cohort51.g_51_security_jwt.dto.UserAuthView;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -8,30 +10,52 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 
+// Неизменяемый снимок пользователя: его можно безопасно кэшировать,
+// в отличие от управляемой сущности User
 public class AuthUserDetails implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final Role role;
+    private final List<GrantedAuthority> authorities;
 
     public AuthUserDetails(User user) {
-        this.user = user;
+        this(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
     }
 
-    public User getUser() {
-        return user;
+    public AuthUserDetails(UserAuthView user) {
+        this(user.id(), user.email(), user.password(), user.role());
+    }
+
+    public AuthUserDetails(Long id, String email, String password, Role role) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Role getRole() {
+        return role;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority(user.getRole().name()));
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
     }
 }
@@ -0,0 +1,56 @@
+package ait.cohort51.g_51_security_jwt.security.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    private static final String BCRYPT_ID = "bcrypt";
+
+    // Новые хэши пишутся как {bcrypt}..., старые хэши без префикса
+    // по-прежнему проверяются BCrypt и обновляются при следующем входе
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.strength:0}") int strength,
+            @Value("${security.password.target-hash-time:250ms}") Duration targetHashTime,
+            @Value("${security.password.min-strength:10}") int minStrength,
+            @Value("${security.password.max-strength:16}") int maxStrength
+    ) {
+        int cost = strength > 0 ? strength : calibrate(targetHashTime, minStrength, maxStrength);
+        log.info("Using BCrypt strength {}", cost);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                BCRYPT_ID, Map.of(BCRYPT_ID, new BCryptPasswordEncoder(cost))
+        );
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    // Каждая единица strength удваивает время хэширования, поэтому достаточно
+    // одного замера на минимальной стоимости, а дальше считаем через log2
+    static int calibrate(Duration targetHashTime, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder sample = new BCryptPasswordEncoder(minStrength);
+        // Прогрев, чтобы замер не включал загрузку классов и JIT
+        new BCryptPasswordEncoder(4).encode("calibration");
+
+        long start = System.nanoTime();
+        sample.encode("calibration");
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        double ratio = (double) targetHashTime.toNanos() / elapsed;
+        int cost = minStrength + (ratio >= 1 ? (int) Math.floor(Math.log(ratio) / Math.log(2)) : 0);
+        return Math.min(maxStrength, Math.max(minStrength, cost));
+    }
+}
@@ -0,0 +1,53 @@
+package ait.cohort51.g_51_security_jwt.security.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class PasswordHashExecutorConfig {
+
+    // Проверка BCrypt нагружает CPU, поэтому потоков не больше, чем ядер.
+    // Очередь ограничена: при переполнении задача отклоняется (AbortPolicy),
+    // и клиент сразу получает 429, а не ждёт в бесконечной очереди.
+    @Bean
+    public ExecutorService passwordHashExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${security.login.hash-threads:0}") int threads,
+            @Value("${security.login.hash-queue-capacity:100}") int queueCapacity
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new PasswordHashThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        // executor.queued, executor.active и т.д. с тегом name=password.hash
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hash");
+    }
+
+    private static class PasswordHashThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package ait.cohort51.g_51_security_jwt.security.config;
 
+import ait.cohort51.g_51_security_jwt.security.filter.RateLimitFilter;
 import ait.cohort51.g_51_security_jwt.security.filter.TokenFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,9 +12,11 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -19,14 +24,21 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final TokenFilter filter;
+    private final RateLimitFilter rateLimitFilter;
+    private final int serverPort;
+    // null - отдельного порта нет, actuator работает на основном
+    private final Integer managementPort;
 
-    public SecurityConfig(TokenFilter filter) {
+    public SecurityConfig(
+            TokenFilter filter,
+            RateLimitFilter rateLimitFilter,
+            @Value("${server.port:8080}") int serverPort,
+            @Value("${management.server.port:}") Integer managementPort
+    ) {
         this.filter = filter;
-    }
-
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        this.rateLimitFilter = rateLimitFilter;
+        this.serverPort = serverPort;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -40,16 +52,41 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(
                         x -> x
+                                // исходный запрос уже прошёл авторизацию, асинхронное завершение ответа не проверяем
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                                 .requestMatchers(HttpMethod.GET, "/products").permitAll()
+                                .requestMatchers(HttpMethod.GET, "/products/export").hasAnyRole("ADMIN", "USER")
                                 .requestMatchers(HttpMethod.GET, "/products/{id}").hasAnyRole("ADMIN", "USER")
                                 .requestMatchers(HttpMethod.POST, "/products").hasRole("ADMIN")
+                                .requestMatchers(HttpMethod.POST, "/products/batch").hasRole("ADMIN")
+                                .requestMatchers(HttpMethod.POST, "/products/import").hasRole("ADMIN")
+                                .requestMatchers(HttpMethod.DELETE, "/products/batch").hasRole("ADMIN")
                                 .requestMatchers(HttpMethod.DELETE, "/products/{id}").hasRole("ADMIN")
 
                                 .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/auth/access").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/auth/logout").permitAll()
+
+                                .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                                // Prometheus ходит без токена только на отдельный порт management,
+                                // который не публикуется наружу; на основном порту метрики - только для ADMIN
+                                .requestMatchers(prometheusOnManagementPort()).permitAll()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 )
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterAfter(filter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
+
+    private RequestMatcher prometheusOnManagementPort() {
+        if (managementPort == null || managementPort <= 0 || managementPort == serverPort) {
+            return request -> false;
+        }
+        return new AndRequestMatcher(
+                request -> request.getLocalPort() == managementPort,
+                PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET, "/actuator/prometheus")
+        );
+    }
 }
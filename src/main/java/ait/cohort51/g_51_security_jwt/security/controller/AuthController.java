@@ -6,8 +6,15 @@ import ait.cohort51.g_51_security_jwt.security.service.AuthService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
@@ -19,32 +26,51 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public void login(@RequestBody LoginRequestDto loginDto, HttpServletResponse response) {
-        TokenResponseDto tokens = service.login(loginDto);
+    public CompletableFuture<ResponseEntity<Void>> login(@RequestBody LoginRequestDto loginDto) {
+        CompletableFuture<TokenResponseDto> tokens;
+        try {
+            tokens = service.login(loginDto);
+        } catch (RejectedExecutionException e) {
+            // Пул проверки паролей перегружен - отказываем сразу
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+        }
 
-        Cookie accessCookie = new Cookie("Access-Token", tokens.getAccessToken());
-        accessCookie.setPath("/");
-        accessCookie.setHttpOnly(true);
-        response.addCookie(accessCookie);
-
-        Cookie refreshCookie = new Cookie("Refresh-Token", tokens.getRefreshToken());
-        refreshCookie.setPath("/");
-        refreshCookie.setHttpOnly(true);
-        response.addCookie(refreshCookie);
+        // Ответ собирается в потоке пула, поэтому куки передаём через заголовки ResponseEntity
+        return tokens.thenApply(result -> {
+            if (result == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, tokenCookie("Access-Token", result.getAccessToken()))
+                    .header(HttpHeaders.SET_COOKIE, tokenCookie("Refresh-Token", result.getRefreshToken()))
+                    .build();
+        });
     }
 
     @GetMapping("/access")
     public void getNewAccessToken(HttpServletRequest request, HttpServletResponse response) {
         TokenResponseDto tokens = service.getAccessToken(request);
+        if (tokens == null) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
 
         Cookie accessCookie = new Cookie("Access-Token", tokens.getAccessToken());
         accessCookie.setPath("/");
         accessCookie.setHttpOnly(true);
         response.addCookie(accessCookie);
+
+        // Новый refresh-токен после ротации
+        Cookie refreshCookie = new Cookie("Refresh-Token", tokens.getRefreshToken());
+        refreshCookie.setPath("/");
+        refreshCookie.setHttpOnly(true);
+        response.addCookie(refreshCookie);
     }
 
     @GetMapping("/logout")
-    public void logout(HttpServletResponse response) {
+    public void logout(HttpServletRequest request, HttpServletResponse response) {
+        service.logout(request);
+
         Cookie accessCookie = new Cookie("Access-Token", null);
         accessCookie.setPath("/");
         accessCookie.setHttpOnly(true);
@@ -57,4 +83,12 @@ public class AuthController {
         refreshCookie.setMaxAge(0);
         response.addCookie(refreshCookie);
     }
+
+    private String tokenCookie(String name, String value) {
+        return ResponseCookie.from(name, value)
+                .path("/")
+                .httpOnly(true)
+                .build()
+                .toString();
+    }
 }
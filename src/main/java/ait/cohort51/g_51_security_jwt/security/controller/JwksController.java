@@ -0,0 +1,34 @@
+package ait.cohort51.g_51_security_jwt.security.controller;
+
+import ait.cohort51.g_51_security_jwt.security.service.AccessTokenKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+public class JwksController {
+
+    private final AccessTokenKeys accessKeys;
+    private final CacheControl cacheControl;
+
+    public JwksController(
+            AccessTokenKeys accessKeys,
+            @Value("${security.token.jwks.max-age:5m}") Duration maxAge
+    ) {
+        this.accessKeys = accessKeys;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    // Другие сервисы кэшируют набор ключей на max-age и проверяют токены локально
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(accessKeys.jwks());
+    }
+}
@@ -0,0 +1,9 @@
+package ait.cohort51.g_51_security_jwt.security.filter;
+
+// CLAIMS - пользователь восстанавливается из claims токена, без запроса в базу.
+// DATABASE - пользователь на каждый запрос загружается из базы (строгий режим).
+public enum AuthenticationMode {
+
+    CLAIMS,
+    DATABASE
+}
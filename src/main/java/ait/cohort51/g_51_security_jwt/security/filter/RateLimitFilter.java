@@ -0,0 +1,142 @@
+package ait.cohort51.g_51_security_jwt.security.filter;
+
+import ait.cohort51.g_51_security_jwt.security.service.RateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Ограничение частоты запросов к /auth/login и /auth/access.
+// Стоит перед TokenFilter и контроллером: отказ 429 не стоит ни запроса в базу, ни BCrypt.
+// IP берётся из getRemoteAddr(); за балансировщиком нужен server.forward-headers-strategy.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/auth/login";
+    private static final String ACCESS_PATH = "/auth/access";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxLoginBodySize;
+    private final RateLimiter loginByIp;
+    private final RateLimiter loginByUsername;
+    private final RateLimiter accessByIp;
+    private final Counter loginIpRejections;
+    private final Counter loginUsernameRejections;
+    private final Counter accessIpRejections;
+
+    public RateLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${security.rate-limit.enabled:true}") boolean enabled,
+            @Value("${security.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+            @Value("${security.rate-limit.maximum-keys:100000}") long maximumKeys,
+            @Value("${security.rate-limit.login.max-body-size:4096}") int maxLoginBodySize,
+            @Value("${security.rate-limit.login.per-ip.capacity:20}") int loginIpCapacity,
+            @Value("${security.rate-limit.login.per-ip.period:1m}") Duration loginIpPeriod,
+            @Value("${security.rate-limit.login.per-username.capacity:5}") int loginUsernameCapacity,
+            @Value("${security.rate-limit.login.per-username.period:1m}") Duration loginUsernamePeriod,
+            @Value("${security.rate-limit.access.per-ip.capacity:60}") int accessIpCapacity,
+            @Value("${security.rate-limit.access.per-ip.period:1m}") Duration accessIpPeriod
+    ) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxLoginBodySize = maxLoginBodySize;
+        loginByIp = new RateLimiter(loginIpCapacity, loginIpPeriod, idleTimeout, maximumKeys);
+        loginByUsername = new RateLimiter(loginUsernameCapacity, loginUsernamePeriod, idleTimeout, maximumKeys);
+        accessByIp = new RateLimiter(accessIpCapacity, accessIpPeriod, idleTimeout, maximumKeys);
+
+        loginIpRejections = rejections(meterRegistry, LOGIN_PATH, "ip");
+        loginUsernameRejections = rejections(meterRegistry, LOGIN_PATH, "username");
+        accessIpRejections = rejections(meterRegistry, ACCESS_PATH, "ip");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String endpoint, String key) {
+        return Counter.builder("auth.rate.limited")
+                .description("Requests rejected by the rate limiter")
+                .tag("endpoint", endpoint)
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return !(LOGIN_PATH.equals(path) && HttpMethod.POST.matches(request.getMethod()))
+                && !(ACCESS_PATH.equals(path) && HttpMethod.GET.matches(request.getMethod()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String ip = request.getRemoteAddr();
+
+        if (ACCESS_PATH.equals(request.getServletPath())) {
+            if (reject(response, accessByIp.tryAcquire(ip), accessIpRejections)) {
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Сначала дешёвая проверка по IP, тело читаем только если она пройдена
+        if (reject(response, loginByIp.tryAcquire(ip), loginIpRejections)) {
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxLoginBodySize + 1);
+        if (body.length > maxLoginBodySize) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+
+        // Отдельная корзина на имя пользователя защищает от перебора пароля с многих IP
+        String username = readUsername(body);
+        if (username != null && reject(response, loginByUsername.tryAcquire(username), loginUsernameRejections)) {
+            return;
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    // Некорректное тело пропускаем дальше: ответ 400 сформирует контроллер
+    private String readUsername(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username == null || !username.isTextual()
+                    ? null
+                    : username.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Статус пишем напрямую, без sendError, чтобы ответ не ушёл на /error
+    private boolean reject(HttpServletResponse response, long retryAfterNanos, Counter counter) {
+        if (retryAfterNanos == 0) {
+            return false;
+        }
+        counter.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return true;
+    }
+}
@@ -1,12 +1,20 @@
 package ait.cohort51.g_51_security_jwt.security.filter;
 
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.security.AuthUserDetails;
+import ait.cohort51.g_51_security_jwt.security.service.RevocationRegistry;
 import ait.cohort51.g_51_security_jwt.security.service.TokenService;
+import ait.cohort51.g_51_security_jwt.security.service.TokenVerification;
 import ait.cohort51.g_51_security_jwt.security.service.UserService;
+import ait.cohort51.g_51_security_jwt.security.service.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,27 +22,89 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class TokenFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
     private final UserService userService;
+    private final VerifiedTokenCache tokenCache;
+    private final RevocationRegistry revocationRegistry;
+    private final AuthenticationMode mode;
+    // Таймеры создаём заранее, чтобы не искать их в реестре на каждый запрос
+    private final Map<TokenVerification.Status, Timer> verificationTimers = new EnumMap<>(TokenVerification.Status.class);
+    private final Timer cacheHitTimer;
+    private final Timer cacheRevokedTimer;
 
-    public TokenFilter(TokenService tokenService, UserService userService) {
+    public TokenFilter(
+            TokenService tokenService,
+            UserService userService,
+            VerifiedTokenCache tokenCache,
+            RevocationRegistry revocationRegistry,
+            @Value("${security.authentication.mode:claims}") AuthenticationMode mode,
+            MeterRegistry meterRegistry
+    ) {
         this.tokenService = tokenService;
         this.userService = userService;
+        this.tokenCache = tokenCache;
+        this.revocationRegistry = revocationRegistry;
+        this.mode = mode;
+
+        for (TokenVerification.Status status : TokenVerification.Status.values()) {
+            verificationTimers.put(status, filterTimer(meterRegistry, status, "miss"));
+        }
+        cacheHitTimer = filterTimer(meterRegistry, TokenVerification.Status.VALID, "hit");
+        cacheRevokedTimer = filterTimer(meterRegistry, TokenVerification.Status.REVOKED, "hit");
+    }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, TokenVerification.Status status, String cache) {
+        return Timer.builder("auth.token.filter")
+                .description("Time spent authenticating a request by its access token")
+                .tag("outcome", status.name().toLowerCase())
+                .tag("cache", cache)
+                .register(meterRegistry);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
         String accessToken = tokenService.getTokenFromRequest(request, "Access-Token");
 
-        if (accessToken != null && tokenService.validateAccessToken(accessToken)) {
-            Claims claims = tokenService.getAccessClaims(accessToken);
-            String username = claims.getSubject();
-            UserDetails userDetails = userService.loadUserByUsername(username);
+        UserDetails userDetails = null;
+        Timer timer;
+
+        // В строгом режиме пользователь проверяется по базе на каждый запрос, кэш не используется
+        VerifiedTokenCache.Entry cached = mode == AuthenticationMode.CLAIMS ? tokenCache.get(accessToken) : null;
+        if (cached != null) {
+            // Токен мог быть отозван уже после того, как попал в кэш
+            if (revocationRegistry.isRevoked(cached.getJti())) {
+                tokenCache.invalidate(accessToken);
+                timer = cacheRevokedTimer;
+            } else {
+                userDetails = cached.getUserDetails();
+                timer = cacheHitTimer;
+            }
+        } else {
+            TokenVerification verification = tokenService.verifyAccessToken(accessToken);
 
+            if (verification.isValid() && revocationRegistry.isRevoked(verification.getClaims().getId())) {
+                verification = TokenVerification.revoked();
+            }
+            if (verification.isValid()) {
+                Claims claims = verification.getClaims();
+                userDetails = resolveUser(claims);
+                if (mode == AuthenticationMode.CLAIMS) {
+                    tokenCache.put(accessToken, userDetails, claims.getId(), claims.getExpiration());
+                }
+            }
+            timer = verificationTimers.get(verification.getStatus());
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (userDetails != null) {
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities()
             );
@@ -44,4 +114,16 @@ public class TokenFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolveUser(Claims claims) {
+        String username = claims.getSubject();
+        String role = claims.get(TokenService.ROLE_CLAIM, String.class);
+
+        // Токены, выданные до появления claim с ролью, по-прежнему проверяем через базу
+        if (mode == AuthenticationMode.CLAIMS && role != null) {
+            Long userId = claims.get(TokenService.USER_ID_CLAIM, Long.class);
+            return new AuthUserDetails(userId, username, null, Role.valueOf(role));
+        }
+        return userService.loadUserByUsername(username);
+    }
 }
@@ -0,0 +1,255 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecretJwk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Кольцо ключей подписи access-токенов.
+// Новые токены подписываются активным ключом и получают заголовок kid,
+// проверка принимает любой не отозванный ключ, выбранный по kid.
+// Без файла ключей всё как раньше: подпись и проверка общим секретом key.access (или
+// сгенерированным при старте ключом ES256/EdDSA).
+//
+// Ротация без разлогинивания пользователей:
+//   1. добавить новый ключ со статусом verify-only и дождаться, пока файл подхватят все экземпляры;
+//   2. сделать новый ключ active, а старый verify-only;
+//   3. через время жизни access-токена перевести старый ключ в retired.
+//
+// Токены без kid подписаны общим секретом key.access. Вне режима hmac они принимаются только
+// при явном accept-legacy-hmac и до legacy-hmac-until, иначе владелец секрета мог бы
+// выпустить токен в обход асимметричной подписи.
+@Component
+public class AccessTokenKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenKeys.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final VerifiedTokenCache tokenCache;
+    private final SecretKey legacyKey;
+    private final boolean acceptLegacyHmac;
+    // null - без срока
+    private final Instant legacyHmacUntil;
+    private final Path keyFile;
+    // Неизменяемый снимок кольца; при перечитывании файла подменяется целиком,
+    // поэтому читатели никогда не видят наполовину обновлённое состояние
+    private volatile KeyRing ring;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public AccessTokenKeys(
+            VerifiedTokenCache tokenCache,
+            @Value("${key.access}") String accessPhrase,
+            @Value("${security.token.signing.algorithm:hmac}") SigningAlgorithm algorithm,
+            @Value("${security.token.signing.key-file:}") String keyFile,
+            @Value("${security.token.signing.accept-legacy-hmac:}") Boolean acceptLegacyHmac,
+            @Value("${security.token.signing.legacy-hmac-until:}") String legacyHmacUntil
+    ) {
+        this.tokenCache = tokenCache;
+        legacyKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(accessPhrase));
+        this.keyFile = keyFile.isBlank() ? null : Path.of(keyFile);
+        this.acceptLegacyHmac = acceptLegacyHmac != null ? acceptLegacyHmac : algorithm == SigningAlgorithm.HMAC;
+        this.legacyHmacUntil = legacyHmacUntil.isBlank() ? null : Instant.parse(legacyHmacUntil);
+
+        // В режиме hmac без файла все токены без kid, запрет legacy-проверки отверг бы их все
+        if (this.keyFile == null && algorithm == SigningAlgorithm.HMAC
+                && (!this.acceptLegacyHmac || this.legacyHmacUntil != null)) {
+            throw new IllegalStateException(
+                    "Legacy HMAC tokens cannot be limited in hmac mode without security.token.signing.key-file");
+        }
+
+        if (this.keyFile != null) {
+            ring = read(this.keyFile);
+        } else if (algorithm == SigningAlgorithm.HMAC) {
+            ring = new KeyRing(new SigningKey(null, legacyKey), Map.of(), Map.of("keys", List.of()));
+        } else {
+            ring = KeyRing.of(List.of(new RingKey(generate(algorithm), KeyStatus.ACTIVE)));
+        }
+        log.info("Signing access tokens with key {}, {} verification keys",
+                ring.active().kid(), ring.verificationKeys().size());
+        if (this.acceptLegacyHmac && algorithm != SigningAlgorithm.HMAC) {
+            log.warn("Access tokens without kid are accepted with the shared HMAC secret until {}",
+                    this.legacyHmacUntil == null ? "further notice" : this.legacyHmacUntil);
+        }
+    }
+
+    public SigningKey signingKey() {
+        return ring.active();
+    }
+
+    // Токены без kid выпущены до перехода на кольцо ключей, их проверяем старым секретом,
+    // если это разрешено. null - ключа нет, токен отклоняется
+    public Key verificationKey(String kid) {
+        if (kid == null) {
+            boolean inTime = legacyHmacUntil == null || Instant.now().isBefore(legacyHmacUntil);
+            return acceptLegacyHmac && inTime ? legacyKey : null;
+        }
+        return ring.verificationKeys().get(kid);
+    }
+
+    // Содержимое /.well-known/jwks.json, только открытые ключи
+    public Map<String, Object> jwks() {
+        return ring.jwks();
+    }
+
+    public Path getKeyFile() {
+        return keyFile;
+    }
+
+    // При ошибке в файле бросает исключение, а текущее кольцо остаётся в силе
+    public void reload() {
+        if (keyFile == null) {
+            return;
+        }
+        // Чтение файла под блокировкой: ReentrantLock, чтобы не прикреплять виртуальный поток
+        reloadLock.lock();
+        try {
+            KeyRing next = read(keyFile);
+            KeyRing previous = ring;
+            ring = next;
+
+            // Проверенные токены отозванного ключа не должны дожить в кэше до своего exp
+            if (!next.verificationKeys().keySet().containsAll(previous.verificationKeys().keySet())) {
+                tokenCache.invalidateAll();
+            }
+            log.info("Reloaded signing keys from {}: active key {}, {} verification keys",
+                    keyFile, next.active().kid(), next.verificationKeys().size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Формат файла: {"keys": [{<JWK>, "kid": "...", "status": "active|verify-only|retired"}, ...]}.
+    // Файл с одним закрытым JWK без "keys" считается кольцом из одного активного ключа.
+    private static KeyRing read(Path file) {
+        Map<String, Object> json;
+        try {
+            json = MAPPER.readValue(Files.readString(file), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read key file " + file, e);
+        }
+
+        List<RingKey> keys = new ArrayList<>();
+        if (json.get("keys") instanceof List<?> entries) {
+            for (Object entry : entries) {
+                if (!(entry instanceof Map<?, ?> map)) {
+                    throw new IllegalStateException("Key file " + file + " contains a malformed key entry");
+                }
+                Map<String, Object> params = new LinkedHashMap<>();
+                map.forEach((name, value) -> params.put(String.valueOf(name), value));
+                Object status = params.remove("status");
+                if (status == null) {
+                    throw new IllegalStateException("Key " + params.get("kid") + " in " + file + " has no status");
+                }
+                keys.add(new RingKey(Jwks.builder().add(params).build(), KeyStatus.parse(status.toString())));
+            }
+        } else {
+            keys.add(new RingKey(Jwks.builder().add(json).build(), KeyStatus.ACTIVE));
+        }
+        return KeyRing.of(keys);
+    }
+
+    // Без файла ключ живёт только до рестарта и подходит лишь для одного экземпляра приложения
+    private static Jwk<?> generate(SigningAlgorithm algorithm) {
+        log.warn("security.token.signing.key-file is not set, generating an ephemeral {} key", algorithm);
+        KeyPair keyPair = algorithm == SigningAlgorithm.ES256
+                ? Jwts.SIG.ES256.keyPair().build()
+                : Jwks.CRV.Ed25519.keyPair().build();
+        return Jwks.builder().keyPair(keyPair).idFromThumbprint().build();
+    }
+
+    public record SigningKey(String kid, Key key) {
+    }
+
+    private record RingKey(Jwk<?> jwk, KeyStatus status) {
+
+        private String kid() {
+            return jwk.getId() != null ? jwk.getId() : jwk.thumbprint().toString();
+        }
+    }
+
+    private record KeyRing(SigningKey active, Map<String, Key> verificationKeys, Map<String, Object> jwks) {
+
+        private static KeyRing of(List<RingKey> keys) {
+            SigningKey active = null;
+            Map<String, Key> verificationKeys = new HashMap<>();
+            List<PublicJwk<?>> published = new ArrayList<>();
+
+            for (RingKey ringKey : keys) {
+                if (ringKey.status() == KeyStatus.RETIRED) {
+                    continue;
+                }
+                String kid = ringKey.kid();
+                Jwk<?> jwk = ringKey.jwk();
+
+                Key verificationKey;
+                Key signingKey = null;
+                if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                    PublicKey publicKey = privateJwk.toPublicJwk().toKey();
+                    verificationKey = publicKey;
+                    signingKey = privateJwk.toKey();
+                    published.add(publicJwk(publicKey, kid));
+                } else if (jwk instanceof PublicJwk<?> publicJwk) {
+                    // Открытый ключ другого издателя: только проверка
+                    verificationKey = publicJwk.toKey();
+                    published.add(publicJwk(publicJwk.toKey(), kid));
+                } else if (jwk instanceof SecretJwk secretJwk) {
+                    // Симметричные ключи проверяем, но никогда не публикуем
+                    verificationKey = secretJwk.toKey();
+                    signingKey = verificationKey;
+                } else {
+                    throw new IllegalStateException("Unsupported key type " + jwk.getType() + " for key " + kid);
+                }
+
+                if (verificationKeys.put(kid, verificationKey) != null) {
+                    throw new IllegalStateException("Duplicate key id " + kid);
+                }
+
+                if (ringKey.status() == KeyStatus.ACTIVE) {
+                    if (active != null) {
+                        throw new IllegalStateException("More than one active key: " + active.kid() + ", " + kid);
+                    }
+                    if (signingKey == null) {
+                        throw new IllegalStateException("Active key " + kid + " has no private part");
+                    }
+                    active = new SigningKey(kid, signingKey);
+                }
+            }
+
+            if (active == null) {
+                throw new IllegalStateException("Key ring has no active key");
+            }
+            return new KeyRing(active, Map.copyOf(verificationKeys), Map.of("keys", List.copyOf(published)));
+        }
+
+        private static PublicJwk<?> publicJwk(PublicKey publicKey, String kid) {
+            return Jwks.builder().key(publicKey).id(kid).publicKeyUse("sig").build();
+        }
+    }
+}
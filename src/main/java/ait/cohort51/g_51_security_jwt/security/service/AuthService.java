@@ -1,61 +1,170 @@
 package ait.cohort51.g_51_security_jwt.security.service;
 
-import ait.cohort51.g_51_security_jwt.domain.User;
 import ait.cohort51.g_51_security_jwt.security.AuthUserDetails;
 import ait.cohort51.g_51_security_jwt.security.dto.LoginRequestDto;
 import ait.cohort51.g_51_security_jwt.security.dto.TokenResponseDto;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.time.Instant;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserService userService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final TokenService tokenService;
-    private final Map<String, String> refreshStorage;
+    private final VerifiedTokenCache tokenCache;
+    private final RefreshTokenStore refreshStore;
+    private final RevocationRegistry revocationRegistry;
+    private final ExecutorService passwordHashExecutor;
+    private final Timer passwordHashTimer;
+    private final Timer userLookupTimer;
+    private final Map<RefreshRotation, Counter> refreshCounters = new EnumMap<>(RefreshRotation.class);
 
-    public AuthService(UserService userService, BCryptPasswordEncoder passwordEncoder, TokenService tokenService) {
+    public AuthService(
+            UserService userService,
+            PasswordEncoder passwordEncoder,
+            TokenService tokenService,
+            VerifiedTokenCache tokenCache,
+            RefreshTokenStore refreshStore,
+            RevocationRegistry revocationRegistry,
+            @Qualifier("passwordHashExecutor") ExecutorService passwordHashExecutor,
+            MeterRegistry meterRegistry
+    ) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.tokenService = tokenService;
-        refreshStorage = new HashMap<>();
+        this.tokenCache = tokenCache;
+        this.refreshStore = refreshStore;
+        this.revocationRegistry = revocationRegistry;
+        this.passwordHashExecutor = passwordHashExecutor;
+        passwordHashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent checking a password hash")
+                .register(meterRegistry);
+        userLookupTimer = Timer.builder("auth.login.user.lookup")
+                .description("Time spent loading the user during login")
+                .register(meterRegistry);
+        for (RefreshRotation rotation : RefreshRotation.values()) {
+            refreshCounters.put(rotation, Counter.builder("auth.refresh.lookup")
+                    .description("Refresh token rotations by result")
+                    .tag("result", rotation.name().toLowerCase())
+                    .register(meterRegistry));
+        }
     }
 
-    public TokenResponseDto login(LoginRequestDto loginRequest) {
+    // Проверка пароля выполняется в отдельном ограниченном пуле, поток Tomcat не занимаем.
+    // Если очередь пула заполнена, выбрасывается RejectedExecutionException.
+    public CompletableFuture<TokenResponseDto> login(LoginRequestDto loginRequest) {
         String username = loginRequest.getUsername();
-        AuthUserDetails userDetails = (AuthUserDetails) userService.loadUserByUsername(username);
-        User user = userDetails.getUser();
-
-        if (passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            String accessToken = tokenService.generateAccessToken(username);
-            String refreshToken = tokenService.generateRefreshToken(username);
-            refreshStorage.put(username, refreshToken);
-            return new TokenResponseDto(accessToken, refreshToken);
-        } else {
-            return null;
+        AuthUserDetails userDetails = (AuthUserDetails) userLookupTimer.record(
+                () -> userService.loadUserByUsername(username)
+        );
+
+        return CompletableFuture
+                .supplyAsync(() -> checkPassword(loginRequest.getPassword(), userDetails), passwordHashExecutor)
+                .thenApply(matches -> matches ? issueTokens(userDetails) : null);
+    }
+
+    // После успешной проверки перехэшируем пароль, если он сохранён
+    // старым алгоритмом или с меньшей стоимостью, чем текущая.
+    // Таймер меряет только сравнение хэша: перехэширование и запись в базу в него не входят
+    private boolean checkPassword(String rawPassword, AuthUserDetails userDetails) {
+        boolean matches = passwordHashTimer.record(
+                () -> passwordEncoder.matches(rawPassword, userDetails.getPassword())
+        );
+        if (!matches) {
+            return false;
         }
+        if (passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            userService.updatePassword(userDetails.getUsername(), passwordEncoder.encode(rawPassword));
+        }
+        return true;
+    }
+
+    private TokenResponseDto issueTokens(AuthUserDetails userDetails) {
+        String username = userDetails.getUsername();
+        String accessToken = tokenService.generateAccessToken(username, userDetails.getId(), userDetails.getRole());
+        String familyId = UUID.randomUUID().toString();
+        String refreshToken = tokenService.generateRefreshToken(username, familyId);
+        refreshStore.save(username, familyId, refreshToken, Instant.now().plus(TokenService.REFRESH_TOKEN_TTL));
+        return new TokenResponseDto(accessToken, refreshToken);
     }
 
+    // Каждый обмен выдаёт новый refresh-токен, старый становится одноразово использованным.
+    // Токены выдаются только выигравшему обмену: повтор уже обменянного токена не получает ничего.
     public TokenResponseDto getAccessToken(HttpServletRequest request) {
         String refreshToken = tokenService.getTokenFromRequest(request, "Refresh-Token");
 
-        if (tokenService.validateRefreshToken(refreshToken)) {
-            // Извлекаем информацию о пользователе из токена
-            Claims refreshClaims = tokenService.getRefreshClaims(refreshToken);
-            String username = refreshClaims.getSubject();
-            String savedRefreshToken = refreshStorage.get(username);
+        TokenVerification verification = tokenService.verifyRefreshToken(refreshToken);
+        if (!verification.isValid()) {
+            return null;
+        }
+
+        // Извлекаем информацию о пользователе из токена
+        Claims refreshClaims = verification.getClaims();
+        String username = refreshClaims.getSubject();
+        String familyId = TokenService.getFamilyId(refreshClaims);
 
-            if (savedRefreshToken != null && savedRefreshToken.equals(refreshToken)) {
-                String accessToken = tokenService.generateAccessToken(username);
-                return new TokenResponseDto(accessToken, refreshToken);
-            }
+        String newRefreshToken = tokenService.generateRefreshToken(username, familyId);
+        RefreshRotation rotation = refreshStore.rotate(
+                username, familyId, refreshToken, newRefreshToken, Instant.now().plus(TokenService.REFRESH_TOKEN_TTL)
+        );
+        refreshCounters.get(rotation).increment();
+
+        if (rotation == RefreshRotation.REUSED) {
+            // Обменянный токен предъявлен повторно - вероятно, он украден; вся сессия закрыта
+            log.warn("Reuse of a rotated refresh token detected for user {}, token family revoked", username);
+        }
+        // CONCURRENT: повтор в окне reuse-grace-period. Семью не отзываем (это может быть
+        // параллельная вкладка, её новые cookie уже у клиента), но и access-токен не выдаём -
+        // иначе украденный токен, предъявленный сразу после настоящего обмена, сработал бы
+        if (rotation != RefreshRotation.ROTATED) {
+            return null;
+        }
+
+        // Старый access-токен больше не должен обслуживаться из кэша
+        tokenCache.invalidate(tokenService.getTokenFromRequest(request, "Access-Token"));
+        // Роль берём из базы, чтобы её изменение попало в новый access-токен
+        AuthUserDetails userDetails = (AuthUserDetails) userService.loadUserByUsername(username);
+        String accessToken = tokenService.generateAccessToken(username, userDetails.getId(), userDetails.getRole());
+        return new TokenResponseDto(accessToken, newRefreshToken);
+    }
+
+    public void logout(HttpServletRequest request) {
+        String accessToken = tokenService.getTokenFromRequest(request, "Access-Token");
+        tokenCache.invalidate(accessToken);
+
+        // Отзываем access-токен, чтобы его копия (например, украденная) перестала работать сразу
+        TokenVerification verification = tokenService.verifyAccessToken(accessToken);
+        if (verification.isValid()) {
+            Claims claims = verification.getClaims();
+            revocationRegistry.revoke(claims.getId(), claims.getExpiration().getTime());
+        }
+
+        // Закрываем всю сессию, включая уже обменянные токены
+        String refreshToken = tokenService.getTokenFromRequest(request, "Refresh-Token");
+        TokenVerification refreshVerification = tokenService.verifyRefreshToken(refreshToken);
+        if (refreshVerification.isValid()) {
+            refreshStore.removeFamily(TokenService.getFamilyId(refreshVerification.getClaims()));
+        }
+        if (refreshToken != null) {
+            refreshStore.remove(refreshToken);
         }
-        return null;
     }
 }
@@ -0,0 +1,110 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Хранилище по умолчанию. ConcurrentHashMap не блокирует чтения,
+// а запись блокирует только одну ячейку таблицы.
+@Component
+@ConditionalOnProperty(name = "security.refresh-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private final Duration reuseGracePeriod;
+    // Ключ - SHA-256 от токена
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+
+    public InMemoryRefreshTokenStore(
+            @Value("${security.refresh-store.reuse-grace-period:10s}") Duration reuseGracePeriod
+    ) {
+        this.reuseGracePeriod = reuseGracePeriod;
+    }
+
+    @Override
+    public void save(String username, String familyId, String refreshToken, Instant expiresAt) {
+        tokens.put(TokenDigest.sha256(refreshToken), new Entry(username, familyId, expiresAt, null));
+    }
+
+    // Обмен без общей блокировки: replace(key, old, new) - это compare-and-set по ссылке на запись
+    @Override
+    public RefreshRotation rotate(String username, String familyId, String refreshToken, String newRefreshToken, Instant expiresAt) {
+        String digest = TokenDigest.sha256(refreshToken);
+        Instant now = Instant.now();
+
+        while (true) {
+            Entry entry = tokens.get(digest);
+            if (entry == null || !entry.username.equals(username) || !entry.expiresAt.isAfter(now)) {
+                return RefreshRotation.NOT_FOUND;
+            }
+            if (entry.rotatedAt != null) {
+                if (entry.rotatedAt.plus(reuseGracePeriod).isAfter(now)) {
+                    return RefreshRotation.CONCURRENT;
+                }
+                removeFamily(entry.familyId);
+                return RefreshRotation.REUSED;
+            }
+
+            if (tokens.replace(digest, entry, new Entry(entry.username, entry.familyId, entry.expiresAt, now))) {
+                String newDigest = TokenDigest.sha256(newRefreshToken);
+                tokens.put(newDigest, new Entry(username, entry.familyId, expiresAt, null));
+                // Семью могли отозвать между replace и put - тогда новый токен тоже недействителен
+                if (!tokens.containsKey(digest)) {
+                    tokens.remove(newDigest);
+                    return RefreshRotation.REUSED;
+                }
+                return RefreshRotation.ROTATED;
+            }
+            // Запись успел изменить параллельный запрос - перечитываем её
+        }
+    }
+
+    @Override
+    public void remove(String refreshToken) {
+        tokens.remove(TokenDigest.sha256(refreshToken));
+    }
+
+    @Override
+    public void removeFamily(String familyId) {
+        tokens.values().removeIf(entry -> entry.familyId.equals(familyId));
+    }
+
+    // Обменянные токены хранятся до своего exp, чтобы распознать их повторное использование
+    @Override
+    public int removeExpired() {
+        Instant now = Instant.now();
+        int removed = 0;
+        for (Map.Entry<String, Entry> token : tokens.entrySet()) {
+            if (!token.getValue().expiresAt.isAfter(now) && tokens.remove(token.getKey(), token.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // Чистка выполняется в потоке планировщика и не мешает обработке запросов
+    @Scheduled(fixedDelayString = "${security.refresh-store.sweep-interval:PT1M}")
+    public void sweep() {
+        removeExpired();
+    }
+
+    private static class Entry {
+
+        private final String username;
+        private final String familyId;
+        private final Instant expiresAt;
+        private final Instant rotatedAt;
+
+        private Entry(String username, String familyId, Instant expiresAt, Instant rotatedAt) {
+            this.username = username;
+            this.familyId = familyId;
+            this.expiresAt = expiresAt;
+            this.rotatedAt = rotatedAt;
+        }
+    }
+}
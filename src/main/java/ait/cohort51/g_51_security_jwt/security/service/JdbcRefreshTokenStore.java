@@ -0,0 +1,109 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Хранилище в таблице refresh_token: токены переживают рестарт
+// и видны всем экземплярам приложения, sticky-сессии не нужны.
+// В базе лежат только SHA-256 отпечатки токенов.
+@Component
+@ConditionalOnProperty(name = "security.refresh-store.type", havingValue = "jdbc")
+public class JdbcRefreshTokenStore implements RefreshTokenStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int deleteBatchSize;
+    private final Duration reuseGracePeriod;
+
+    public JdbcRefreshTokenStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${security.refresh-store.delete-batch-size:1000}") int deleteBatchSize,
+            @Value("${security.refresh-store.reuse-grace-period:10s}") Duration reuseGracePeriod
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deleteBatchSize = deleteBatchSize;
+        this.reuseGracePeriod = reuseGracePeriod;
+    }
+
+    @Override
+    public void save(String username, String familyId, String refreshToken, Instant expiresAt) {
+        jdbcTemplate.update(
+                "INSERT INTO refresh_token (token_hash, username, family_id, expires_at) VALUES (?, ?, ?, ?)",
+                TokenDigest.sha256(refreshToken), username, familyId, Timestamp.from(expiresAt)
+        );
+    }
+
+    // Условный UPDATE - это compare-and-set на стороне базы: строку с rotated_at IS NULL
+    // обновит только один из параллельных запросов, остальные получат 0 строк
+    @Override
+    @Transactional
+    public RefreshRotation rotate(String username, String familyId, String refreshToken, String newRefreshToken, Instant expiresAt) {
+        String digest = TokenDigest.sha256(refreshToken);
+        Timestamp now = Timestamp.from(Instant.now());
+
+        int updated = jdbcTemplate.update(
+                "UPDATE refresh_token SET rotated_at = ? " +
+                        "WHERE token_hash = ? AND username = ? AND expires_at > ? AND rotated_at IS NULL",
+                now, digest, username, now
+        );
+        if (updated == 1) {
+            save(username, familyId, newRefreshToken, expiresAt);
+            return RefreshRotation.ROTATED;
+        }
+
+        List<Timestamp> rotatedAt = jdbcTemplate.queryForList(
+                "SELECT rotated_at FROM refresh_token WHERE token_hash = ? AND username = ? AND expires_at > ?",
+                Timestamp.class,
+                digest, username, now
+        );
+        if (rotatedAt.isEmpty() || rotatedAt.get(0) == null) {
+            return RefreshRotation.NOT_FOUND;
+        }
+        if (rotatedAt.get(0).toInstant().plus(reuseGracePeriod).isAfter(now.toInstant())) {
+            return RefreshRotation.CONCURRENT;
+        }
+        removeFamily(familyId);
+        remove(refreshToken);
+        return RefreshRotation.REUSED;
+    }
+
+    @Override
+    public void remove(String refreshToken) {
+        jdbcTemplate.update("DELETE FROM refresh_token WHERE token_hash = ?", TokenDigest.sha256(refreshToken));
+    }
+
+    @Override
+    public void removeFamily(String familyId) {
+        jdbcTemplate.update("DELETE FROM refresh_token WHERE family_id = ?", familyId);
+    }
+
+    // Удаляем пачками, чтобы не держать долгие блокировки на большой таблице
+    @Override
+    public int removeExpired() {
+        Timestamp now = Timestamp.from(Instant.now());
+        int removed = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                    "DELETE FROM refresh_token WHERE id IN " +
+                            "(SELECT id FROM refresh_token WHERE expires_at <= ? LIMIT ?)",
+                    now, deleteBatchSize
+            );
+            removed += deleted;
+        } while (deleted == deleteBatchSize);
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${security.refresh-store.sweep-interval:PT1M}")
+    public void sweep() {
+        removeExpired();
+    }
+}
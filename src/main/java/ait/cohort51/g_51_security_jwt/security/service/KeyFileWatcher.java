@@ -0,0 +1,100 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Следит за каталогом файла ключей и перечитывает кольцо после изменений, без рестарта.
+// Реагируем на любое событие в каталоге: редакторы и Kubernetes подменяют файл
+// через переименование или симлинк, и событие приходит не на само имя файла.
+@Component
+public class KeyFileWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyFileWatcher.class);
+
+    private final AccessTokenKeys accessKeys;
+    private final boolean enabled;
+    private final Duration debounce;
+    private WatchService watchService;
+    private Thread thread;
+
+    public KeyFileWatcher(
+            AccessTokenKeys accessKeys,
+            @Value("${security.token.signing.watch:true}") boolean enabled,
+            @Value("${security.token.signing.watch-debounce:500ms}") Duration debounce
+    ) {
+        this.accessKeys = accessKeys;
+        this.enabled = enabled;
+        this.debounce = debounce;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Path keyFile = accessKeys.getKeyFile();
+        if (!enabled || keyFile == null) {
+            return;
+        }
+        Path directory = keyFile.toAbsolutePath().getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        thread = new Thread(this::watch, "key-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for signing key changes", keyFile);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                drain(key);
+
+                // Запись файла порождает несколько событий подряд: ждём, пока они закончатся
+                while ((key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    drain(key);
+                }
+                reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // приложение останавливается
+        }
+    }
+
+    private void drain(WatchKey key) {
+        key.pollEvents();
+        key.reset();
+    }
+
+    private void reload() {
+        try {
+            accessKeys.reload();
+        } catch (RuntimeException e) {
+            log.error("Cannot reload signing keys, keeping the previous key ring", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+public enum KeyStatus {
+    // Подписывает новые токены, в кольце ровно один такой ключ
+    ACTIVE,
+    // Только проверяет: новый ключ до переключения или старый, пока живут его токены
+    VERIFY_ONLY,
+    // Токены с этим kid больше не принимаются
+    RETIRED;
+
+    // В файле статусы пишутся как active, verify-only, retired
+    public static KeyStatus parse(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
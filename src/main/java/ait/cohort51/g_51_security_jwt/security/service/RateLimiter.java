@@ -0,0 +1,46 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket в форме GCRA: на ключ хранится одно число - теоретическое время
+// прибытия следующего запроса (TAT). Проверка - одно чтение и один CAS, без блокировок.
+// capacity запросов можно сделать сразу, дальше - по одному на каждые period / capacity.
+// Корзины лежат в ограниченном по размеру кэше и удаляются после простоя.
+public class RateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(int capacity, Duration period, Duration idleTimeout, long maximumKeys) {
+        emissionIntervalNanos = period.toNanos() / Math.max(1, capacity);
+        burstToleranceNanos = emissionIntervalNanos * Math.max(1, capacity);
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maximumKeys)
+                .build();
+    }
+
+    // 0 - запрос разрешён, иначе через сколько наносекунд можно повторить
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+
+        while (true) {
+            long current = tat.get();
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = start + emissionIntervalNanos;
+            long allowAt = next - burstToleranceNanos;
+            if (allowAt - now > 0) {
+                return allowAt - now;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
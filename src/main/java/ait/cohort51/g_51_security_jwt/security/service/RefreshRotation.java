@@ -0,0 +1,13 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+// Результат обмена refresh-токена на новый
+public enum RefreshRotation {
+    // Токен обменян, выдан новый refresh-токен той же семьи
+    ROTATED,
+    // Токен обменян не раньше reuse-grace-period назад (например, параллельной вкладкой):
+    // семья не отзывается, но и новые токены не выдаются - их уже получил выигравший обмен
+    CONCURRENT,
+    // Повторное использование давно обменянного токена: семья отозвана целиком
+    REUSED,
+    NOT_FOUND
+}
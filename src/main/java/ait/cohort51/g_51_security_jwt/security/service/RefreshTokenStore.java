@@ -0,0 +1,22 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import java.time.Instant;
+
+// Хранилище выданных refresh-токенов. У одного пользователя может быть
+// несколько активных сессий; каждая сессия - это семья токенов (familyId),
+// в которой действителен только последний выданный токен.
+public interface RefreshTokenStore {
+
+    void save(String username, String familyId, String refreshToken, Instant expiresAt);
+
+    // Атомарно помечает refreshToken обменянным и сохраняет newRefreshToken в той же семье.
+    // Из двух одновременных обменов одного токена выигрывает ровно один.
+    RefreshRotation rotate(String username, String familyId, String refreshToken, String newRefreshToken, Instant expiresAt);
+
+    void remove(String refreshToken);
+
+    void removeFamily(String familyId);
+
+    // Удаляет токены с истёкшим сроком действия, возвращает их количество
+    int removeExpired();
+}
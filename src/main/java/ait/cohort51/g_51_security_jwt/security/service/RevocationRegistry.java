@@ -0,0 +1,86 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Реестр отозванных access-токенов (по jti).
+// Перед точным множеством стоит фильтр Блума: для неотозванного токена проверка - это
+// несколько чтений из массива бит, без хэш-таблицы. Пока реестр пуст, нет и этого.
+// Запись живёт до exp токена: после него токен и так не пройдёт проверку подписи.
+// Реестр локален для экземпляра приложения.
+@Component
+public class RevocationRegistry {
+
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    // jti -> exp в миллисекундах
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Из фильтра Блума нельзя удалять, поэтому при чистке он строится заново и подменяется
+    private volatile BloomFilter filter;
+    // ReentrantLock вместо synchronized: виртуальный поток не прикрепляется к потоку-носителю
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public RevocationRegistry(
+            @Value("${security.revocation.expected-insertions:100000}") int expectedInsertions,
+            @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    // Отзывы редки (logout), поэтому запись синхронизирована с перестройкой фильтра
+    public void revoke(String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            revoked.put(jti, expiresAtMillis);
+            filter.add(jti);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || revoked.isEmpty()) {
+            return false;
+        }
+        return filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    public int removeExpired() {
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            if (revoked.size() == before) {
+                return 0;
+            }
+
+            // Новый фильтр не помнит удалённые jti; при росте реестра он становится больше
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size() * 2), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+            return before - revoked.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.sweep-interval:PT1M}")
+    public void sweep() {
+        removeExpired();
+    }
+}
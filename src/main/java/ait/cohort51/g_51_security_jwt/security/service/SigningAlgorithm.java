@@ -0,0 +1,9 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+public enum SigningAlgorithm {
+    // Общий секрет key.access, проверить токен может только тот, кто знает секрет
+    HMAC,
+    // Закрытый ключ только у нас, открытый публикуется в /.well-known/jwks.json
+    ES256,
+    EDDSA
+}
@@ -1,7 +1,14 @@
 package ait.cohort51.g_51_security_jwt.security.service;
 
+import ait.cohort51.g_51_security_jwt.domain.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.Cookie;
@@ -10,83 +17,137 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class TokenService {
 
-    private final SecretKey accessKey;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String FAMILY_CLAIM = "fid";
+    public static final Duration REFRESH_TOKEN_TTL = Duration.ofDays(7);
+
+    private final AccessTokenKeys accessKeys;
+    private final Duration accessTokenTtl;
     private final SecretKey refreshKey;
+    // Парсеры неизменяемы и потокобезопасны, поэтому строим их один раз
+    private final JwtParser accessParser;
+    private final JwtParser refreshParser;
 
     public TokenService(
-            @Value("${key.access}") String accessPhrase,
-            @Value("${key.refresh}") String refreshPhrase
+            AccessTokenKeys accessKeys,
+            @Value("${key.refresh}") String refreshPhrase,
+            @Value("${security.token.access-ttl:24h}") Duration accessTokenTtl
     ) {
+        this.accessKeys = accessKeys;
+        this.accessTokenTtl = accessTokenTtl;
 
-        // Генерация секретных ключей на основе секретных фраз
-        accessKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(accessPhrase));
+        // Refresh-токены проверяет только этот сервис, поэтому для них остаётся HMAC
         refreshKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(refreshPhrase));
+
+        // Ключ проверки access-токена выбирается по заголовку kid
+        accessParser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                return accessKeys.verificationKey(header.getKeyId());
+            }
+        }).build();
+        refreshParser = Jwts.parser().verifyWith(refreshKey).build();
     }
 
     // Методы генерации токенов
     public String generateAccessToken(String username) {
+        return generateAccessToken(username, null, null);
+    }
+
+    // Роль и id пользователя кладём в токен, чтобы фильтр мог обойтись без запроса в базу
+    public String generateAccessToken(String username, Long userId, Role role) {
         Date now = new Date();
-        Date expiration = new Date(now.getTime() + 24 * 60 * 60 * 1000);
+        Date expiration = new Date(now.getTime() + accessTokenTtl.toMillis());
 
-        return Jwts.builder()
+        AccessTokenKeys.SigningKey signingKey = accessKeys.signingKey();
+
+        JwtBuilder builder = Jwts.builder();
+        if (signingKey.kid() != null) {
+            builder.header().keyId(signingKey.kid());
+        }
+        // По jti токен можно отозвать до истечения срока (RevocationRegistry)
+        return builder
+                .id(UUID.randomUUID().toString())
                 .subject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role == null ? null : role.name())
                 .expiration(expiration)
-                .signWith(accessKey)
+                .signWith(signingKey.key())
                 .compact();
     }
 
+    // Первый refresh-токен новой сессии открывает новую семью
     public String generateRefreshToken(String username) {
+        return generateRefreshToken(username, UUID.randomUUID().toString());
+    }
+
+    public String generateRefreshToken(String username, String familyId) {
         Date now = new Date();
-        Date expiration = new Date(now.getTime() + 7 * 24 * 60 * 60 * 1000);
+        Date expiration = new Date(now.getTime() + REFRESH_TOKEN_TTL.toMillis());
 
+        // jti делает токены различимыми, fid связывает все токены одной сессии
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
+                .claim(FAMILY_CLAIM, familyId)
                 .expiration(expiration)
                 .signWith(refreshKey)
                 .compact();
     }
 
-    // Методы валидации токенов
-    public boolean validateAccessToken(String accessToken) {
-        return validateToken(accessToken, accessKey);
+    // У токенов, выданных до появления семей, семьёй считается сам токен
+    public static String getFamilyId(Claims refreshClaims) {
+        String familyId = refreshClaims.get(FAMILY_CLAIM, String.class);
+        return familyId != null ? familyId : refreshClaims.getId();
     }
 
-    public boolean validateRefreshToken(String refreshToken) {
-        return validateToken(refreshToken, refreshKey);
+    // Методы проверки токенов: подпись проверяется один раз, claims возвращаются сразу
+    public TokenVerification verifyAccessToken(String accessToken) {
+        return verifyToken(accessToken, accessParser);
     }
 
-    private boolean validateToken(String token, SecretKey key) {
+    public TokenVerification verifyRefreshToken(String refreshToken) {
+        return verifyToken(refreshToken, refreshParser);
+    }
+
+    private TokenVerification verifyToken(String token, JwtParser parser) {
+        if (token == null || token.isBlank()) {
+            return TokenVerification.missing();
+        }
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return TokenVerification.valid(parser.parseSignedClaims(token).getPayload());
+        } catch (ExpiredJwtException e) {
+            return TokenVerification.expired();
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenVerification.invalid();
         }
     }
 
+    // Методы валидации токенов
+    public boolean validateAccessToken(String accessToken) {
+        return verifyAccessToken(accessToken).isValid();
+    }
+
+    public boolean validateRefreshToken(String refreshToken) {
+        return verifyRefreshToken(refreshToken).isValid();
+    }
+
     // Методы, которые извлекают информацию о клиенте из токена
     public Claims getAccessClaims(String accessToken) {
-        return getClaims(accessToken, accessKey);
+        return accessParser.parseSignedClaims(accessToken).getPayload();
     }
 
     public Claims getRefreshClaims(String refreshToken) {
-        return getClaims(refreshToken, refreshKey);
-    }
-
-    private Claims getClaims(String token, SecretKey key) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return refreshParser.parseSignedClaims(refreshToken).getPayload();
     }
 
     public String getTokenFromRequest(HttpServletRequest request, String tokenParamName) {
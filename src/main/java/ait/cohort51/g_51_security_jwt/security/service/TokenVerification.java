@@ -0,0 +1,68 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import io.jsonwebtoken.Claims;
+
+// Результат однократной проверки токена: либо проверенные claims, либо причина отказа
+public class TokenVerification {
+
+    public enum Status {
+        VALID,
+        EXPIRED,
+        INVALID,
+        MISSING,
+        // Подпись верна, но токен отозван (logout)
+        REVOKED
+    }
+
+    private static final TokenVerification EXPIRED = new TokenVerification(Status.EXPIRED, null);
+    private static final TokenVerification INVALID = new TokenVerification(Status.INVALID, null);
+    private static final TokenVerification MISSING = new TokenVerification(Status.MISSING, null);
+    private static final TokenVerification REVOKED = new TokenVerification(Status.REVOKED, null);
+
+    private final Status status;
+    private final Claims claims;
+
+    private TokenVerification(Status status, Claims claims) {
+        this.status = status;
+        this.claims = claims;
+    }
+
+    public static TokenVerification valid(Claims claims) {
+        return new TokenVerification(Status.VALID, claims);
+    }
+
+    public static TokenVerification expired() {
+        return EXPIRED;
+    }
+
+    public static TokenVerification invalid() {
+        return INVALID;
+    }
+
+    public static TokenVerification missing() {
+        return MISSING;
+    }
+
+    public static TokenVerification revoked() {
+        return REVOKED;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isValid() {
+        return status == Status.VALID;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenVerification{" +
+                "status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Прогрев пути выдачи и проверки JWT до того, как приложение объявит себя готовым
+// (readiness переключается только после ApplicationReadyEvent).
+// Первые запросы не платят за загрузку классов jjwt, JCA и Jackson и за интерпретатор.
+@Component
+public class TokenWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenWarmUp.class);
+    private static final String USERNAME = "warm-up@localhost";
+
+    private final TokenService tokenService;
+    private final int iterations;
+
+    public TokenWarmUp(
+            TokenService tokenService,
+            @Value("${security.token.warm-up.iterations:200}") int iterations
+    ) {
+        this.tokenService = tokenService;
+        this.iterations = iterations;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        if (iterations <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            String accessToken = tokenService.generateAccessToken(USERNAME, 0L, Role.ROLE_USER);
+            tokenService.verifyAccessToken(accessToken);
+            String refreshToken = tokenService.generateRefreshToken(USERNAME);
+            tokenService.verifyRefreshToken(refreshToken);
+            TokenDigest.sha256(accessToken);
+        }
+        log.info("JWT path warmed up with {} iterations in {} ms", iterations, (System.nanoTime() - start) / 1_000_000);
+    }
+}
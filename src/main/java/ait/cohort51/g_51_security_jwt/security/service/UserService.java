@@ -1,25 +1,83 @@
 package ait.cohort51.g_51_security_jwt.security.service;
 
-import ait.cohort51.g_51_security_jwt.domain.User;
+import ait.cohort51.g_51_security_jwt.dto.UserAuthView;
 import ait.cohort51.g_51_security_jwt.repository.UserRepository;
 import ait.cohort51.g_51_security_jwt.security.AuthUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class UserService implements UserDetailsService {
 
     private final UserRepository repository;
+    private final VerifiedTokenCache tokenCache;
+    private final boolean cacheEnabled;
+    // В кэше лежат неизменяемые снимки AuthUserDetails, а не сущности User
+    private final Cache<String, AuthUserDetails> cache;
+    private final Timer loadTimer;
 
-    public UserService(UserRepository repository) {
+    public UserService(
+            UserRepository repository,
+            VerifiedTokenCache tokenCache,
+            MeterRegistry meterRegistry,
+            @Value("${security.user-cache.enabled:true}") boolean cacheEnabled,
+            @Value("${security.user-cache.ttl:5m}") Duration ttl,
+            @Value("${security.user-cache.maximum-size:10000}") long maximumSize
+    ) {
         this.repository = repository;
+        this.tokenCache = tokenCache;
+        this.cacheEnabled = cacheEnabled;
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        // hit ratio, время загрузки и число вытеснений видны в /actuator/metrics (cache.*)
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        loadTimer = Timer.builder("auth.user.load")
+                .description("Time spent loading user details, including cache hits")
+                .register(meterRegistry);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = repository.findByEmail(username).orElseThrow(
+        long start = System.nanoTime();
+        try {
+            if (cacheEnabled) {
+                return cache.get(username, this::loadFromRepository);
+            }
+            return loadFromRepository(username);
+        } finally {
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void updatePassword(String username, String passwordHash) {
+        repository.updatePasswordByEmail(username, passwordHash);
+        evict(username);
+    }
+
+    // Вызывать при изменении роли или пароля пользователя
+    public void evict(String username) {
+        cache.invalidate(username);
+        tokenCache.invalidateSubject(username);
+    }
+
+    // read-only транзакция (и соединение из пула replica) открывается в репозитории только при промахе кэша
+    private AuthUserDetails loadFromRepository(String username) {
+        UserAuthView user = repository.findAuthViewByEmail(username).orElseThrow(
                 () -> new UsernameNotFoundException(String.format("User with  email %s not found", username))
         );
         return new AuthUserDetails(user);
@@ -0,0 +1,92 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+// Кэш уже проверенных access-токенов: повторный запрос с тем же токеном
+// не требует ни проверки подписи, ни разбора claims.
+// Ключ - SHA-256 от токена, запись живёт не дольше, чем сам токен (exp).
+@Component
+public class VerifiedTokenCache {
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+
+    public VerifiedTokenCache(
+            MeterRegistry meterRegistry,
+            @Value("${security.token-cache.enabled:true}") boolean enabled,
+            @Value("${security.token-cache.maximum-size:10000}") long maximumSize
+    ) {
+        this.enabled = enabled;
+        // Caffeine вытесняет записи по W-TinyLFU, размер ограничен
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String key, Entry entry) ->
+                        Duration.ofMillis(Math.max(0, entry.expiresAt - System.currentTimeMillis()))))
+                .recordStats()
+                .build();
+
+        // hit ratio и вытеснения видны в /actuator/metrics (cache.* с тегом cache=tokens)
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokens");
+    }
+
+    // Вместе с пользователем возвращается jti, чтобы фильтр проверил отзыв и для токена из кэша
+    public Entry get(String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+        return cache.getIfPresent(TokenDigest.sha256(token));
+    }
+
+    public void put(String token, UserDetails userDetails, String jti, Date expiration) {
+        // Токены без срока действия не кэшируем
+        if (!enabled || token == null || expiration == null) {
+            return;
+        }
+        cache.put(TokenDigest.sha256(token), new Entry(userDetails, jti, expiration.getTime()));
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            cache.invalidate(TokenDigest.sha256(token));
+        }
+    }
+
+    public void invalidateSubject(String username) {
+        cache.asMap().values().removeIf(entry -> entry.userDetails.getUsername().equals(username));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public static class Entry {
+
+        private final UserDetails userDetails;
+        private final String jti;
+        private final long expiresAt;
+
+        private Entry(UserDetails userDetails, String jti, long expiresAt) {
+            this.userDetails = userDetails;
+            this.jti = jti;
+            this.expiresAt = expiresAt;
+        }
+
+        public UserDetails getUserDetails() {
+            return userDetails;
+        }
+
+        public String getJti() {
+            return jti;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ait.cohort51.g_51_security_jwt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Кэш чтения продуктов (по id и страницы списка) вместе с их ETag.
+// Каждая запись привязана к версии каталога: любое изменение увеличивает версию,
+// и все закэшированные ранее значения перестают находиться. Значение, загруженное
+// параллельно с изменением, попадёт под старую версию и тоже не будет прочитано.
+// Старые записи вытесняются по размеру, ttl ограничивает устаревание
+// при изменениях, сделанных другими экземплярами приложения.
+@Component
+public class ProductCache {
+
+    private final AtomicLong version = new AtomicLong();
+    private final Cache<Key, Object> cache;
+
+    public ProductCache(
+            MeterRegistry meterRegistry,
+            @Value("${products.cache.maximum-size:1000}") long maximumSize,
+            @Value("${products.cache.ttl:10m}") Duration ttl
+    ) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, Object query, Supplier<T> loader) {
+        return (T) cache.get(new Key(version.get(), kind, query), key -> loader.get());
+    }
+
+    // Вызывать после фиксации изменений в базе
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    // Внутри транзакции откладываем сброс до коммита, иначе параллельное чтение
+    // успеет закэшировать ещё не изменённые данные под новой версией
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+            }
+        });
+    }
+
+    private record Key(long version, String kind, Object query) {
+    }
+}
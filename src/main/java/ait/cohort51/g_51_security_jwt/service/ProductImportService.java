@@ -0,0 +1,196 @@
+package ait.cohort51.g_51_security_jwt.service;
+
+import ait.cohort51.g_51_security_jwt.dto.ProductImportReport;
+import ait.cohort51.g_51_security_jwt.repository.ProductJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Импорт каталога из CSV вида title,price.
+// Файл читается построчно прямо из запроса, строки копятся в пачку фиксированного
+// размера и записываются одним batch upsert'ом, поэтому память не зависит от размера файла.
+// Повтор title внутри пачки схлопывается (побеждает последняя строка): PostgreSQL не даёт
+// одному INSERT ... ON CONFLICT DO UPDATE изменить строку дважды.
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private final ProductJdbcRepository jdbcRepository;
+    private final ProductCache cache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(
+            ProductJdbcRepository jdbcRepository,
+            ProductCache cache,
+            PlatformTransactionManager transactionManager,
+            @Value("${products.import.batch-size:500}") int batchSize,
+            @Value("${products.import.max-reported-errors:100}") int maxReportedErrors
+    ) {
+        this.jdbcRepository = jdbcRepository;
+        this.cache = cache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ProductImportReport importCsv(Reader source) throws IOException {
+        ProductImportReport report = new ProductImportReport();
+        Batch batch = new Batch();
+
+        try (BufferedReader reader = new BufferedReader(source)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.trim().equalsIgnoreCase("title,price"))) {
+                    continue;
+                }
+                report.setProcessedRows(report.getProcessedRows() + 1);
+
+                String error = parseRow(line, lineNumber, batch);
+                if (error != null) {
+                    reject(report, lineNumber, error);
+                    continue;
+                }
+
+                if (batch.size() == batchSize) {
+                    flush(report, batch);
+                }
+            }
+            flush(report, batch);
+        } finally {
+            // Часть пачек могла уже записаться, даже если импорт прервался
+            cache.invalidate();
+        }
+
+        log.info("Product import finished: {} processed, {} imported, {} rejected",
+                report.getProcessedRows(), report.getImportedRows(), report.getRejectedRows());
+        return report;
+    }
+
+    // Каждая пачка - отдельная транзакция, чтобы не держать блокировки на весь импорт.
+    // Ошибка записи откатывает только свою пачку, её строки попадают в отчёт, импорт продолжается.
+    private void flush(ProductImportReport report, Batch batch) {
+        if (batch.size() == 0) {
+            return;
+        }
+        List<String> titles = new ArrayList<>(batch.priceByTitle.keySet());
+        List<BigDecimal> prices = new ArrayList<>(batch.priceByTitle.values());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcRepository.upsertBatch(titles, prices));
+            report.setImportedRows(report.getImportedRows() + batch.size());
+        } catch (DataAccessException e) {
+            log.warn("Product import batch of {} rows failed", batch.size(), e);
+            String reason = "Batch write failed: " + e.getMostSpecificCause().getMessage();
+            for (long line : batch.lines) {
+                reject(report, line, reason);
+            }
+        }
+        batch.clear();
+        log.info("Product import progress: {} rows processed, {} imported", report.getProcessedRows(), report.getImportedRows());
+    }
+
+    private void reject(ProductImportReport report, long lineNumber, String reason) {
+        report.setRejectedRows(report.getRejectedRows() + 1);
+        if (report.getRejected().size() < maxReportedErrors) {
+            report.getRejected().add(new ProductImportReport.RejectedRow(lineNumber, reason));
+        }
+    }
+
+    private String parseRow(String line, long lineNumber, Batch batch) {
+        List<String> fields = splitCsvLine(line);
+        if (fields == null) {
+            return "Unterminated quoted field";
+        }
+        if (fields.size() != 2) {
+            return "Expected 2 columns but found " + fields.size();
+        }
+
+        String title = fields.get(0).trim();
+        BigDecimal price;
+        try {
+            price = new BigDecimal(fields.get(1).trim());
+        } catch (NumberFormatException e) {
+            return "Price is not a number: " + fields.get(1);
+        }
+
+        String error = ProductValidator.validate(title, price);
+        if (error != null) {
+            return error;
+        }
+        batch.add(lineNumber, title, price);
+        return null;
+    }
+
+    // Поддерживаются поля в кавычках с удвоенной кавычкой внутри ("a ""b"", c").
+    // Возвращает null, если кавычка не закрыта до конца строки.
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Цена по title в порядке первого появления и номера всех строк пачки для отчёта об ошибке
+    private static class Batch {
+
+        private final Map<String, BigDecimal> priceByTitle = new LinkedHashMap<>();
+        private final List<Long> lines = new ArrayList<>();
+
+        void add(long line, String title, BigDecimal price) {
+            priceByTitle.put(title, price);
+            lines.add(line);
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        void clear() {
+            priceByTitle.clear();
+            lines.clear();
+        }
+    }
+}
@@ -1,19 +1,34 @@
 package ait.cohort51.g_51_security_jwt.service;
 
 import ait.cohort51.g_51_security_jwt.domain.Product;
+import ait.cohort51.g_51_security_jwt.dto.ProductBatchResult;
+import ait.cohort51.g_51_security_jwt.dto.ProductFilter;
+import ait.cohort51.g_51_security_jwt.dto.ProductSnapshot;
+import ait.cohort51.g_51_security_jwt.dto.ProductView;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface ProductService  {
 
     Product save(Product product);
 
-    List<Product> getAll();
+    ProductSnapshot<List<ProductView>> getPage(ProductFilter filter);
 
-    Product getById(Long id);
+    // Пишет весь каталог в поток в формате NDJSON (один продукт на строку)
+    void exportAll(OutputStream out) throws IOException;
+
+    ProductSnapshot<ProductView> getById(Long id);
 
     void deleteById(Long id);
 
+    // Пакетные операции выполняются в одной транзакции,
+    // результат возвращается для каждого элемента запроса
+    List<ProductBatchResult> saveAll(List<Product> products);
+
+    List<ProductBatchResult> deleteAllById(List<Long> ids);
+
 
 
 }
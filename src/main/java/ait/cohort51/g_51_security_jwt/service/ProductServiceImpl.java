@@ -1,41 +1,213 @@
 package ait.cohort51.g_51_security_jwt.service;
 
 import ait.cohort51.g_51_security_jwt.domain.Product;
+import ait.cohort51.g_51_security_jwt.dto.ProductBatchResult;
+import ait.cohort51.g_51_security_jwt.dto.ProductFilter;
+import ait.cohort51.g_51_security_jwt.dto.ProductSnapshot;
+import ait.cohort51.g_51_security_jwt.dto.ProductView;
+import ait.cohort51.g_51_security_jwt.repository.ProductJdbcRepository;
 import ait.cohort51.g_51_security_jwt.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+// Время каждой операции пишется в таймер products.operation с тегом operation
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository repository;
+    private final ProductJdbcRepository jdbcRepository;
+    private final ProductCache cache;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
 
-    public ProductServiceImpl(ProductRepository repository) {
+    public ProductServiceImpl(
+            ProductRepository repository,
+            ProductJdbcRepository jdbcRepository,
+            ProductCache cache,
+            ObjectMapper objectMapper,
+            @Value("${products.page.default-size:50}") int defaultPageSize,
+            @Value("${products.page.max-size:500}") int maxPageSize,
+            @Value("${products.batch.max-size:1000}") int maxBatchSize
+    ) {
         this.repository = repository;
+        this.jdbcRepository = jdbcRepository;
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
+    @Timed(value = "products.operation", extraTags = {"operation", "save"})
     public Product save(Product product) {
-        return repository.save(product);
+        Product saved = repository.save(product);
+        cache.invalidate();
+        return saved;
     }
 
     @Override
-    public List<Product> getAll() {
-        return repository.findAll();
+    @Timed(value = "products.operation", extraTags = {"operation", "getPage"})
+    public ProductSnapshot<List<ProductView>> getPage(ProductFilter filter) {
+        long afterId = filter.getAfterId() == null ? 0 : filter.getAfterId();
+        int limit = filter.getLimit() == null ? defaultPageSize : Math.max(1, Math.min(filter.getLimit(), maxPageSize));
+        String titlePattern = filter.getTitlePrefix() == null || filter.getTitlePrefix().isEmpty()
+                ? null
+                : escapeLike(filter.getTitlePrefix()) + "%";
+
+        return cache.get("page", filter, () -> {
+            List<ProductView> products = List.copyOf(
+                    repository.findPage(afterId, filter.getMinPrice(), filter.getMaxPrice(), titlePattern, PageRequest.of(0, limit))
+            );
+            return new ProductSnapshot<>(products, eTag(products));
+        });
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    // В памяти держим только одну строку и буфер JsonGenerator
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "products.operation", extraTags = {"operation", "exportAll"})
+    public void exportAll(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try {
+                jdbcRepository.forEach(product -> {
+                    try {
+                        generator.writeObject(product);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
     }
 
     @Override
-    public Product getById(Long id) {
-        Product product = repository.findById(id).orElse(null);
-        if (product == null) {
-            throw new IllegalArgumentException("Product with id: " + id + " does not exist");
+    @Timed(value = "products.operation", extraTags = {"operation", "getById"})
+    public ProductSnapshot<ProductView> getById(Long id) {
+        return cache.get("id", id, () -> {
+            ProductView product = repository.findViewById(id).orElse(null);
+            if (product == null) {
+                throw new IllegalArgumentException("Product with id: " + id + " does not exist");
+            }
+            return new ProductSnapshot<>(product, eTag(List.of(product)));
+        });
+    }
+
+    // Строгий ETag считается по содержимому, поэтому совпадает на всех экземплярах приложения
+    private static String eTag(List<ProductView> products) {
+        StringBuilder content = new StringBuilder();
+        for (ProductView product : products) {
+            content.append(product.id()).append('|')
+                    .append(product.title()).append('|')
+                    .append(product.price()).append(';');
         }
-        return product;
+        return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     @Override
+    @Timed(value = "products.operation", extraTags = {"operation", "deleteById"})
     public void deleteById(Long id) {
         repository.deleteById(id);
+        cache.invalidate();
+    }
+
+    @Override
+    @Transactional
+    @Timed(value = "products.operation", extraTags = {"operation", "saveAll"})
+    public List<ProductBatchResult> saveAll(List<Product> products) {
+        checkBatchSize(products.size());
+
+        List<ProductBatchResult> results = new ArrayList<>(products.size());
+        List<Product> accepted = new ArrayList<>(products.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(products.size());
+
+        // Одним запросом узнаём, какие названия уже заняты (title уникален)
+        Set<String> titles = new HashSet<>();
+        for (Product product : products) {
+            if (product.getTitle() != null) {
+                titles.add(product.getTitle());
+            }
+        }
+        Set<String> takenTitles = titles.isEmpty() ? new HashSet<>() : new HashSet<>(repository.findExistingTitles(titles));
+
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            String error = ProductValidator.validate(product.getTitle(), product.getPrice());
+            if (error == null && !takenTitles.add(product.getTitle())) {
+                error = "Product with title " + product.getTitle() + " already exists";
+            }
+
+            if (error == null) {
+                product.setId(null);
+                accepted.add(product);
+                acceptedIndexes.add(i);
+                results.add(null);
+            } else {
+                results.add(new ProductBatchResult(i, null, ProductBatchResult.Status.REJECTED, error));
+            }
+        }
+
+        // id выдаются из product_seq, insert'ы уходят пачками при коммите
+        List<Product> saved = repository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results.set(index, new ProductBatchResult(index, saved.get(i).getId(), ProductBatchResult.Status.CREATED, null));
+        }
+
+        cache.invalidateAfterCommit();
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @Timed(value = "products.operation", extraTags = {"operation", "deleteAllById"})
+    public List<ProductBatchResult> deleteAllById(List<Long> ids) {
+        checkBatchSize(ids.size());
+
+        Set<Long> existing = ids.isEmpty() ? new HashSet<>() : new HashSet<>(repository.findExistingIds(ids));
+        // Один DELETE ... WHERE id IN (...) вместо удаления по одной записи
+        repository.deleteAllByIdInBatch(existing);
+
+        List<ProductBatchResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(existing.contains(id)
+                    ? new ProductBatchResult(i, id, ProductBatchResult.Status.DELETED, null)
+                    : new ProductBatchResult(i, id, ProductBatchResult.Status.NOT_FOUND, "Product with id: " + id + " does not exist"));
+        }
+
+        cache.invalidateAfterCommit();
+        return results;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + size + " exceeds the limit of " + maxBatchSize);
+        }
     }
 }
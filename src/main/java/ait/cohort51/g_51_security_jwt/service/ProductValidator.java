@@ -0,0 +1,35 @@
+package ait.cohort51.g_51_security_jwt.service;
+
+import java.math.BigDecimal;
+
+// Проверка значений на соответствие колонкам таблицы product:
+// title varchar(64) not null, price decimal(7,2) not null
+public final class ProductValidator {
+
+    public static final int TITLE_MAX_LENGTH = 64;
+    private static final int PRICE_SCALE = 2;
+    private static final BigDecimal PRICE_LIMIT = new BigDecimal("100000");
+
+    private ProductValidator() {
+    }
+
+    // Возвращает описание ошибки или null, если значения корректны
+    public static String validate(String title, BigDecimal price) {
+        if (title == null || title.isBlank()) {
+            return "Title is required";
+        }
+        if (title.length() > TITLE_MAX_LENGTH) {
+            return "Title is longer than " + TITLE_MAX_LENGTH + " characters";
+        }
+        if (price == null) {
+            return "Price is required";
+        }
+        if (price.stripTrailingZeros().scale() > PRICE_SCALE) {
+            return "Price has more than " + PRICE_SCALE + " decimal places";
+        }
+        if (price.abs().compareTo(PRICE_LIMIT) >= 0) {
+            return "Price must be less than " + PRICE_LIMIT;
+        }
+        return null;
+    }
+}
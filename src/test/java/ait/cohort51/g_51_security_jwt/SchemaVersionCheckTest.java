@@ -0,0 +1,75 @@
+package ait.cohort51.g_51_security_jwt;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaVersionCheckTest {
+
+    @Test
+    public void checkMatchingVersionPasses() {
+        SchemaVersionCheck check = new SchemaVersionCheck(
+                jdbcReturning(List.of("1.1.0")), false, "1.1.0", SchemaVersionCheck.OnMismatch.FAIL);
+
+        assertDoesNotThrow(check::check, "Matching schema version should pass");
+    }
+
+    @Test
+    public void checkMismatchFailsOrWarns() {
+        JdbcTemplate outdated = jdbcReturning(List.of("1.0.0"));
+
+        SchemaVersionCheck failing = new SchemaVersionCheck(outdated, false, "1.1.0", SchemaVersionCheck.OnMismatch.FAIL);
+        IllegalStateException e = assertThrows(IllegalStateException.class, failing::check,
+                "Outdated schema should fail startup");
+        assertTrue(e.getMessage().contains("1.0.0"), "Message should name the actual version");
+
+        SchemaVersionCheck warning = new SchemaVersionCheck(outdated, false, "1.1.0", SchemaVersionCheck.OnMismatch.WARN);
+        assertDoesNotThrow(warning::check, "Warn mode should only log");
+    }
+
+    @Test
+    public void checkMissingChangelogTableIsMismatch() {
+        JdbcTemplate empty = new JdbcTemplate() {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType) {
+                throw new DataAccessResourceFailureException("relation \"databasechangelog\" does not exist");
+            }
+        };
+        SchemaVersionCheck check = new SchemaVersionCheck(empty, false, "1.1.0", SchemaVersionCheck.OnMismatch.FAIL);
+
+        assertNull(check.currentVersion(), "Missing changelog table means no version");
+        assertThrows(IllegalStateException.class, check::check, "Uninitialised schema should fail startup");
+    }
+
+    @Test
+    public void checkSkippedWhenLiquibaseRunsAtStartup() {
+        AtomicInteger queries = new AtomicInteger();
+        JdbcTemplate counting = new JdbcTemplate() {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType) {
+                queries.incrementAndGet();
+                return List.of();
+            }
+        };
+        new SchemaVersionCheck(counting, true, "1.1.0", SchemaVersionCheck.OnMismatch.FAIL).check();
+        assertEquals(0, queries.get(), "Liquibase itself keeps the schema up to date");
+
+        new SchemaVersionCheck(counting, false, "1.1.0", SchemaVersionCheck.OnMismatch.IGNORE).check();
+        assertEquals(0, queries.get(), "Ignore mode should not touch the database");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JdbcTemplate jdbcReturning(List<String> tags) {
+        return new JdbcTemplate() {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType) {
+                return (List<T>) tags;
+            }
+        };
+    }
+}
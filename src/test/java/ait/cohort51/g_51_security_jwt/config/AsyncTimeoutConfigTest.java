@@ -0,0 +1,45 @@
+package ait.cohort51.g_51_security_jwt.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncTimeoutConfigTest {
+
+    private final AsyncTimeoutConfig.TimeoutInterceptor interceptor = new AsyncTimeoutConfig.TimeoutInterceptor();
+
+    @Test
+    public void checkTimeoutFromAttributeApplied() throws Exception {
+        assertEquals(600_000L, startAsync(Duration.ofMinutes(10)), "Timeout from the request attribute should be used");
+    }
+
+    @Test
+    public void checkZeroDisablesTimeout() throws Exception {
+        assertEquals(-1L, startAsync(Duration.ZERO), "Zero should disable the async timeout");
+    }
+
+    @Test
+    public void checkDefaultKeptWithoutAttribute() throws Exception {
+        assertEquals(30_000L, startAsync(null), "Default timeout should stay without the attribute");
+    }
+
+    private long startAsync(Duration timeout) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        if (timeout != null) {
+            request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, timeout);
+        }
+        StandardServletAsyncWebRequest asyncRequest = new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+        // Общий таймаут выставляет Spring MVC до вызова обработчика
+        asyncRequest.setTimeout(30_000L);
+
+        interceptor.beforeConcurrentHandling(asyncRequest, () -> null);
+        asyncRequest.startAsync();
+        return request.getAsyncContext().getTimeout();
+    }
+}
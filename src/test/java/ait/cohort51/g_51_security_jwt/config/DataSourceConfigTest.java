@@ -0,0 +1,91 @@
+package ait.cohort51.g_51_security_jwt.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Две базы H2 вместо primary и replica: в каждой таблица node с именем своей базы
+class DataSourceConfigTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    public void setUp() {
+        primary = pool("primary");
+        replica = pool("replica");
+
+        DataSource dataSource = new DataSourceConfig().dataSource(primary, replica);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    public void checkReadOnlyTransactionsGoToReplica() {
+        assertEquals("replica", readOnly.execute(status -> currentNode()), "Read-only transaction should use replica");
+        assertEquals("primary", readWrite.execute(status -> currentNode()), "Read-write transaction should use primary");
+        assertEquals("primary", currentNode(), "Statements outside transactions should use primary");
+    }
+
+    @Test
+    public void checkPoolsAreIndependent() {
+        readOnly.execute(status -> currentNode());
+
+        assertEquals(0, primary.getHikariPoolMXBean().getTotalConnections() - primary.getHikariPoolMXBean().getIdleConnections(),
+                "No primary connection should stay borrowed");
+        assertTrue(replica.getHikariPoolMXBean().getTotalConnections() > 0, "Replica pool should be used");
+        assertEquals("replica", replica.getPoolName());
+    }
+
+    @Test
+    public void checkNoConnectionTakenWithoutStatements() {
+        HikariDataSource lazyPrimary = new HikariDataSource();
+        lazyPrimary.setJdbcUrl("jdbc:h2:mem:lazy;DB_CLOSE_DELAY=-1");
+        try {
+            DataSource dataSource = new DataSourceConfig().dataSource(lazyPrimary, replica);
+            TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            transaction.executeWithoutResult(status -> {
+            });
+
+            assertFalse(lazyPrimary.isRunning(), "Empty transaction should not start the pool");
+        } finally {
+            lazyPrimary.close();
+        }
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        jdbc.execute("DELETE FROM node");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
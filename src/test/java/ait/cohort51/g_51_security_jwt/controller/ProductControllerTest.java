@@ -0,0 +1,274 @@
+package ait.cohort51.g_51_security_jwt.controller;
+
+import ait.cohort51.g_51_security_jwt.domain.Product;
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.repository.ProductRepository;
+import ait.cohort51.g_51_security_jwt.security.service.TokenService;
+import ait.cohort51.g_51_security_jwt.service.ProductCache;
+import ait.cohort51.g_51_security_jwt.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Поведение эндпоинтов /products на H2 (профиль h2), без внешней базы
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cookie adminCookie;
+
+    @BeforeEach
+    public void setUp() {
+        productRepository.deleteAll();
+        // Репозиторий меняет базу в обход сервиса, кэш сбрасываем сами
+        productCache.invalidate();
+        adminCookie = new Cookie("Access-Token", tokenService.generateAccessToken("admin@test.com", 1L, Role.ROLE_ADMIN));
+    }
+
+    @Test
+    public void checkNotModifiedWhenETagMatches() throws Exception {
+        save("apple", "1.50");
+
+        String eTag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult notModified = mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertEquals("", notModified.getResponse().getContentAsString(), "304 should have no body");
+    }
+
+    @Test
+    public void checkWriteInvalidatesCachedPage() throws Exception {
+        save("apple", "1.50");
+        String eTag = mockMvc.perform(get("/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/products").cookie(adminCookie)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"pear\",\"price\":2}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].title").value("pear"));
+    }
+
+    @Test
+    public void checkKeysetPagination() throws Exception {
+        Long first = save("a", "1").getId();
+        Long second = save("b", "2").getId();
+        Long third = save("c", "3").getId();
+
+        mockMvc.perform(get("/products").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first))
+                .andExpect(header().string("X-Next-After-Id", String.valueOf(second)));
+
+        mockMvc.perform(get("/products").param("limit", "2").param("afterId", String.valueOf(second)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(third))
+                .andExpect(header().string("X-Next-After-Id", String.valueOf(third)));
+
+        // Пустая страница - конец списка, заголовка нет
+        mockMvc.perform(get("/products").param("afterId", String.valueOf(third)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist("X-Next-After-Id"));
+    }
+
+    @Test
+    public void checkPriceRangeFilter() throws Exception {
+        save("cheap", "1");
+        save("middle", "5");
+        save("expensive", "10");
+
+        mockMvc.perform(get("/products").param("minPrice", "2").param("maxPrice", "9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("middle"));
+    }
+
+    @Test
+    public void checkTitlePrefixEscapesLikeWildcards() throws Exception {
+        save("50% off", "1");
+        save("500 pieces", "1");
+        save("a_b", "1");
+        save("axb", "1");
+        save("x!y", "1");
+        save("x!!y", "1");
+
+        // % и _ в префиксе - обычные символы, а не шаблоны LIKE
+        mockMvc.perform(get("/products").param("titlePrefix", "50%"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("50% off"));
+        mockMvc.perform(get("/products").param("titlePrefix", "a_"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("a_b"));
+        // Символ экранирования тоже экранируется
+        mockMvc.perform(get("/products").param("titlePrefix", "x!y"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("x!y"));
+    }
+
+    @Test
+    public void checkExportStreamsNdjson() throws Exception {
+        Long first = save("apple", "1.50").getId();
+        Long second = save("pear", "2").getId();
+
+        // StreamingResponseBody пишется асинхронно, тело доступно после asyncDispatch
+        MvcResult started = mockMvc.perform(get("/products/export").cookie(adminCookie))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Выгрузка не ограничена общим таймаутом spring.mvc.async.request-timeout (30s)
+        assertEquals(Duration.ofMinutes(30).toMillis(), started.getRequest().getAsyncContext().getTimeout(),
+                "Export should use products.export.timeout");
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length, "One line per product expected: " + body);
+        assertTrue(body.endsWith("\n"), "Every line should end with a newline");
+        JsonNode apple = objectMapper.readTree(lines[0]);
+        assertEquals(first, apple.get("id").asLong(), "Products should be exported in id order");
+        assertEquals("apple", apple.get("title").asText());
+        assertEquals(0, new BigDecimal("1.50").compareTo(apple.get("price").decimalValue()));
+        assertEquals(second, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    @Test
+    public void checkExportRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/products/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void checkBatchCreateReportsEachItem() throws Exception {
+        save("apple", "1");
+
+        mockMvc.perform(post("/products/batch").cookie(adminCookie)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" +
+                                "{\"title\":\"pear\",\"price\":2}," +
+                                "{\"title\":\"apple\",\"price\":3}," +
+                                "{\"title\":\"plum\"}," +
+                                "{\"title\":\"pear\",\"price\":4}," +
+                                "{\"title\":\"kiwi\",\"price\":5}" +
+                                "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].message").value("Product with title apple already exists"))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[2].message").value("Price is required"))
+                // Повтор названия внутри одного пакета тоже отклоняется
+                .andExpect(jsonPath("$[3].status").value("REJECTED"))
+                .andExpect(jsonPath("$[4].status").value("CREATED"))
+                .andExpect(jsonPath("$[4].index").value(4));
+
+        assertEquals(3, productRepository.count(), "Only accepted products should be saved");
+        // Пакет сбрасывает кэш после коммита
+        mockMvc.perform(get("/products"))
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    public void checkBatchDeleteReportsMissingIds() throws Exception {
+        Long apple = save("apple", "1").getId();
+        Long pear = save("pear", "2").getId();
+        Long plum = save("plum", "3").getId();
+        long missing = plum + 1000;
+
+        mockMvc.perform(delete("/products/batch").cookie(adminCookie)
+                        .param("ids", apple + "," + missing + "," + plum))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("DELETED"))
+                .andExpect(jsonPath("$[0].id").value(apple))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[1].id").value(missing))
+                .andExpect(jsonPath("$[2].status").value("DELETED"));
+
+        assertEquals(List.of(pear), productRepository.findAll().stream().map(Product::getId).toList(),
+                "Only the listed existing products should be deleted");
+    }
+
+    @Test
+    public void checkBatchRequiresAdmin() throws Exception {
+        Cookie userCookie = new Cookie("Access-Token", tokenService.generateAccessToken("user@test.com", 2L, Role.ROLE_USER));
+
+        mockMvc.perform(delete("/products/batch").cookie(userCookie).param("ids", "1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void checkBatchSizeLimited() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            products.add(new Product());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> productService.saveAll(products),
+                "Batch above products.batch.max-size should be rejected");
+        assertEquals(0, productRepository.count(), "Nothing should be saved from an oversized batch");
+    }
+
+    private Product save(String title, String price) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setPrice(new BigDecimal(price));
+        return productRepository.save(product);
+    }
+}
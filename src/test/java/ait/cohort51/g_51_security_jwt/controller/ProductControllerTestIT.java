@@ -3,6 +3,7 @@ package ait.cohort51.g_51_security_jwt.controller;
 import ait.cohort51.g_51_security_jwt.domain.Product;
 import ait.cohort51.g_51_security_jwt.domain.Role;
 import ait.cohort51.g_51_security_jwt.domain.User;
+import ait.cohort51.g_51_security_jwt.dto.ProductImportReport;
 import ait.cohort51.g_51_security_jwt.repository.ProductRepository;
 import ait.cohort51.g_51_security_jwt.repository.UserRepository;
 import io.jsonwebtoken.Jwts;
@@ -228,6 +229,46 @@ class ProductControllerTestIT {
         productRepository.delete(savedProduct);
     }
 
+    @Test
+    @Order(6)
+    public void checkImportUpsertsExistingAndDuplicateTitles() {
+        headers.add(HttpHeaders.COOKIE, "Access-Token=" + adminAccessToken);
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+        // Продукт с таким title уже есть: импорт должен обновить цену, а не упасть
+        Product existing = productRepository.save(testProduct);
+
+        // Повтор title в одной пачке: побеждает последняя строка
+        String csv = "title,price\n" +
+                testProduct.getTitle() + ",10\n" +
+                "import product,1\n" +
+                "import product,2\n";
+        HttpEntity<String> request = new HttpEntity<>(csv, headers);
+
+        ResponseEntity<ProductImportReport> response = restTemplate.exchange(
+                "/products/import", HttpMethod.POST, request, ProductImportReport.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode(), "Unexpected HTTP status");
+        ProductImportReport report = response.getBody();
+        assertNotNull(report, "Import report should not be null");
+        assertEquals(3, report.getImportedRows(), "All rows should be imported");
+        assertEquals(0, report.getRejectedRows(), "No rows should be rejected: " + report.getRejected());
+
+        Product updated = productRepository.findById(existing.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("10").compareTo(updated.getPrice()), "Existing product price should be updated");
+
+        Product imported = productRepository.findAll().stream()
+                .filter(product -> product.getTitle().equals("import product"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, new BigDecimal("2").compareTo(imported.getPrice()), "Last duplicate row should win");
+
+        productRepository.delete(updated);
+        productRepository.delete(imported);
+        userRepository.delete(admin);
+    }
+
     private Product createTestProduct() {
         Product product = new Product();
         product.setTitle("test product");
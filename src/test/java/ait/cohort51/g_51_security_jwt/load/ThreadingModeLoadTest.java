@@ -0,0 +1,127 @@
+package ait.cohort51.g_51_security_jwt.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Нагрузочный тест для сравнения режимов обработки запросов.
+// Запускается только против уже работающего приложения, например:
+//   VIRTUAL_THREADS_ENABLED=false java -jar app.jar   (затем то же с true, нужна JDK 21+)
+//   mvn test -Dtest=ThreadingModeLoadTest -Dloadtest.base-url=http://localhost:8080 \
+//       -Dloadtest.access-token=<токен> -Dloadtest.concurrency=400 -Dloadtest.duration=PT30S
+// Результаты (пропускная способность и p99) печатаются в консоль для каждого прогона.
+@EnabledIfSystemProperty(named = "loadtest.base-url", matches = ".+")
+class ThreadingModeLoadTest {
+
+    @Test
+    public void measureThroughputAndLatency() throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url");
+        String path = System.getProperty("loadtest.path", "/products");
+        String accessToken = System.getProperty("loadtest.access-token");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (accessToken != null) {
+            builder.header("Cookie", "Access-Token=" + accessToken);
+        }
+        HttpRequest request = builder.build();
+
+        // Прогрев JIT и пулов соединений, результаты не учитываем
+        run(client, request, concurrency, warmup);
+        Result result = run(client, request, concurrency, duration);
+
+        System.out.printf("Load test %s: %d requests, %d errors, %.1f req/s, p50=%.2f ms, p99=%.2f ms%n",
+                path, result.requests, result.errors, result.throughput(duration),
+                result.percentile(50) / 1_000_000.0, result.percentile(99) / 1_000_000.0);
+
+        assertTrue(result.requests > 0, "No requests were completed");
+        assertEquals(0, result.errors, "Some requests failed");
+    }
+
+    private Result run(HttpClient client, HttpRequest request, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        try {
+            List<Future<long[]>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(workers.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            List<long[]> perWorker = new ArrayList<>(concurrency);
+            for (Future<long[]> future : futures) {
+                perWorker.add(future.get());
+            }
+            long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(all, errors.get());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static class Result {
+
+        private final long[] sortedLatencies;
+        private final long requests;
+        private final long errors;
+
+        private Result(long[] sortedLatencies, long errors) {
+            this.sortedLatencies = sortedLatencies;
+            this.requests = sortedLatencies.length;
+            this.errors = errors;
+        }
+
+        private double throughput(Duration duration) {
+            return requests / (duration.toMillis() / 1000.0);
+        }
+
+        private long percentile(int percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)];
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ait.cohort51.g_51_security_jwt.repository;
+
+import ait.cohort51.g_51_security_jwt.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Выдача id для импорта: H2 в режиме PostgreSQL понимает nextval('product_seq')
+class ProductJdbcRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductJdbcRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:product_seq_" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""
+        );
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY " + Product.ID_ALLOCATION_SIZE);
+        repository = new ProductJdbcRepository(dataSource, 10);
+    }
+
+    @Test
+    public void checkOneSequenceCallPerAllocationRange() {
+        // Как после миграции: следующий nextval - граница целого диапазона
+        jdbcTemplate.queryForObject("SELECT nextval('product_seq')", Long.class);
+
+        List<Long> ids = repository.allocateIds(120);
+
+        assertEquals(120, ids.size());
+        assertEquals(120, new HashSet<>(ids).size(), "Ids should be unique");
+        assertEquals(2L, ids.get(0), "Ids should start at the bottom of the first range");
+        assertEquals(121L, ids.get(119), "Ids should be contiguous within ranges");
+        // 120 строк - 3 диапазона по 50, а не 120 вызовов nextval
+        assertEquals(151L, currentValue(), "Only three ranges should be taken from the sequence");
+    }
+
+    @Test
+    public void checkIdsDoNotOverlapNextRange() {
+        List<Long> ids = repository.allocateIds(10);
+
+        long nextHigh = jdbcTemplate.queryForObject("SELECT nextval('product_seq')", Long.class);
+        long nextLow = nextHigh - Product.ID_ALLOCATION_SIZE + 1;
+        assertTrue(ids.stream().allMatch(id -> id >= 1 && id < nextLow),
+                "Allocated ids " + ids + " should stay below the next range starting at " + nextLow);
+    }
+
+    private long currentValue() {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE - INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'PRODUCT_SEQ'",
+                Long.class
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package ait.cohort51.g_51_security_jwt.repository;
+
+import ait.cohort51.g_51_security_jwt.domain.Product;
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.domain.User;
+import ait.cohort51.g_51_security_jwt.dto.ProductView;
+import ait.cohort51.g_51_security_jwt.dto.UserAuthView;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Схема создаётся Hibernate в H2, Liquibase здесь не нужен
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ProjectionQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long productId;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setEmail("user@test.com");
+        user.setPassword("$2a$10$hash");
+        user.setName("Test user");
+        user.setRole(Role.ROLE_USER);
+        entityManager.persist(user);
+
+        for (int i = 1; i <= 3; i++) {
+            Product product = new Product();
+            product.setTitle("Product " + i);
+            product.setPrice(new BigDecimal(i * 10));
+            entityManager.persist(product);
+            if (productId == null) {
+                productId = product.getId();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void checkUserAuthViewSelectsAuthColumns() {
+        UserAuthView user = userRepository.findAuthViewByEmail("user@test.com").orElse(null);
+
+        assertNotNull(user, "User should be found by email");
+        assertEquals("user@test.com", user.email());
+        assertEquals("$2a$10$hash", user.password());
+        assertEquals(Role.ROLE_USER, user.role());
+        assertNotNull(user.id(), "Id is needed for access token claims");
+        assertEquals(0, managedEntities(), "Projection should not load entities into the persistence context");
+
+        assertTrue(userRepository.findAuthViewByEmail("missing@test.com").isEmpty(), "Unknown email should give empty result");
+    }
+
+    @Test
+    public void checkProductViewsAreNotManaged() {
+        ProductView byId = productRepository.findViewById(productId).orElse(null);
+        List<ProductView> page = productRepository.findPage(productId, null, null, null, PageRequest.of(0, 10));
+
+        assertNotNull(byId, "Product should be found by id");
+        assertEquals(productId, byId.id());
+        assertEquals("Product 1", byId.title());
+        assertEquals(2, page.size(), "Page should start after the given id");
+        assertTrue(page.get(0).id() > productId, "Page should be ordered by id");
+        assertEquals(0, managedEntities(), "Projections should not load entities into the persistence context");
+    }
+
+    private long managedEntities() {
+        return entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
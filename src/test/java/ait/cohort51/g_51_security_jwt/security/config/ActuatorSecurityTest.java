@@ -0,0 +1,91 @@
+package ait.cohort51.g_51_security_jwt.security.config;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.security.service.TokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Метрики Prometheus открыты без токена только на отдельном порту management
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+// В тестах Boot по умолчанию отключает экспорт метрик, включаем его обратно
+@AutoConfigureObservability(tracing = false)
+class ActuatorSecurityTest {
+
+    private static final int MANAGEMENT_PORT = freePort();
+
+    @DynamicPropertySource
+    static void managementPort(DynamicPropertyRegistry registry) {
+        registry.add("management.server.port", () -> MANAGEMENT_PORT);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    public void checkPrometheusOpenOnManagementPort() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + MANAGEMENT_PORT + "/actuator/prometheus", String.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode(), "Scraper should reach metrics on the management port");
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().contains("auth_token_filter"), "Auth metrics should be exported");
+    }
+
+    @Test
+    public void checkOtherActuatorEndpointsNeedAdminOnManagementPort() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + MANAGEMENT_PORT + "/actuator/metrics", String.class
+        );
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode(), "Only prometheus should be open for scraping");
+    }
+
+    @Test
+    public void checkPrometheusNotServedOnMainPort() {
+        ResponseEntity<String> anonymous = restTemplate.getForEntity(
+                "http://localhost:" + port + "/actuator/prometheus", String.class
+        );
+        assertNotEquals(HttpStatus.OK, anonymous.getStatusCode(), "Metrics should not be public on the main port");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, "Access-Token=" + tokenService.generateAccessToken("admin@test.com", 1L, Role.ROLE_ADMIN));
+        ResponseEntity<String> admin = restTemplate.exchange(
+                "http://localhost:" + port + "/actuator/prometheus", HttpMethod.GET, new HttpEntity<>(headers), String.class
+        );
+        assertNotEquals(HttpStatus.OK, admin.getStatusCode(), "Actuator should live only on the management port");
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ait.cohort51.g_51_security_jwt.security.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordEncoderConfigTest {
+
+    @Test
+    public void checkCalibrationNeverGoesBelowMinStrength() {
+        // Любой замер дольше нулевой цели - калибровка не может опуститься ниже минимума
+        assertEquals(10, PasswordEncoderConfig.calibrate(Duration.ZERO, 10, 16),
+                "Calibration should be clamped to the min strength");
+    }
+
+    @Test
+    public void checkCalibrationNeverGoesAboveMaxStrength() {
+        // Цель в час даёт стоимость далеко за пределами диапазона
+        assertEquals(16, PasswordEncoderConfig.calibrate(Duration.ofHours(1), 10, 16),
+                "Calibration should be clamped to the max strength");
+    }
+
+    @Test
+    public void checkCalibrationGrowsWithTargetTime() {
+        int fast = PasswordEncoderConfig.calibrate(Duration.ofMillis(1), 4, 16);
+        int slow = PasswordEncoderConfig.calibrate(Duration.ofSeconds(1), 4, 16);
+
+        assertTrue(slow > fast, "Longer target time should give a higher cost: " + fast + " vs " + slow);
+    }
+}
@@ -0,0 +1,156 @@
+package ait.cohort51.g_51_security_jwt.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 3 входа с одного IP, 2 на одно имя, 1 обмен токена с одного IP - всё за минуту
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new ObjectMapper(), meterRegistry, true, Duration.ofMinutes(10), 1000, 64,
+            3, Duration.ofMinutes(1),
+            2, Duration.ofMinutes(1),
+            1, Duration.ofMinutes(1)
+    );
+
+    @Test
+    public void checkLoginLimitedPerIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.OK.value(), login("10.0.0.1", "user" + i + "@test.com").getStatus(),
+                    "Requests within the IP capacity should pass");
+        }
+        MockHttpServletResponse rejected = login("10.0.0.1", "other@test.com");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        // Следующий токен появляется через period / capacity = 20 секунд
+        long retryAfter = Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter > 0 && retryAfter <= 20, "Unexpected Retry-After " + retryAfter);
+        assertEquals(HttpStatus.OK.value(), login("10.0.0.2", "other@test.com").getStatus(),
+                "Other IPs should have their own bucket");
+        assertEquals(1.0, meterRegistry.get("auth.rate.limited").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    public void checkLoginLimitedPerUsernameAcrossIps() throws Exception {
+        assertEquals(HttpStatus.OK.value(), login("10.0.0.1", "victim@test.com").getStatus());
+        assertEquals(HttpStatus.OK.value(), login("10.0.0.2", " Victim@Test.com ").getStatus());
+
+        MockHttpServletResponse rejected = login("10.0.0.3", "victim@test.com");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus(),
+                "Username bucket should be shared by all IPs and ignore case");
+        assertNotNull(rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("auth.rate.limited").tag("key", "username").counter().count());
+    }
+
+    @Test
+    public void checkBodyReachesControllerAfterFilter() throws Exception {
+        String json = "{\"username\":\"user@test.com\",\"password\":\"secret\"}";
+        MockHttpServletRequest request = loginRequest("10.0.0.1", json);
+        AtomicReference<String> streamBody = new AtomicReference<>();
+        AtomicReference<String> readerBody = new AtomicReference<>();
+        AtomicReference<String> listenerBody = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            streamBody.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            readerBody.set(req.getReader().readLine());
+            listenerBody.set(readWithListener(req));
+        });
+
+        assertEquals(json, streamBody.get(), "Controller should read the body from the stream");
+        assertEquals(json, readerBody.get(), "Controller should read the body from the reader");
+        assertEquals(json, listenerBody.get(), "Non-blocking read should see the body");
+    }
+
+    @Test
+    public void checkOversizedBodyRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(loginRequest("10.0.0.1", "{\"username\":\"" + "a".repeat(100) + "\"}"), response,
+                (req, res) -> fail("Oversized body should not reach the controller"));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+    }
+
+    @Test
+    public void checkAccessLimitedPerIp() throws Exception {
+        assertEquals(HttpStatus.OK.value(), access("10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = access("10.0.0.1");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertNotNull(rejected.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    private MockHttpServletResponse login(String ip, String username) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(loginRequest(ip, "{\"username\":\"" + username + "\",\"password\":\"p\"}"), response,
+                (req, res) -> req.getInputStream().readAllBytes());
+        return response;
+    }
+
+    private MockHttpServletResponse access(String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/access");
+        request.setServletPath("/auth/access");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+        });
+        return response;
+    }
+
+    private static MockHttpServletRequest loginRequest(String ip, String json) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setServletPath("/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String readWithListener(ServletRequest request) throws IOException {
+        ServletInputStream in = request.getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        AtomicReference<Boolean> done = new AtomicReference<>(false);
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (in.isReady() && !in.isFinished()) {
+                    int read = in.read(buffer);
+                    if (read > 0) {
+                        body.write(buffer, 0, read);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                done.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+        assertTrue(done.get(), "onAllDataRead should be called once the body is consumed");
+        return body.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,164 @@
+package ait.cohort51.g_51_security_jwt.security.filter;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.security.AuthUserDetails;
+import ait.cohort51.g_51_security_jwt.security.service.RevocationRegistry;
+import ait.cohort51.g_51_security_jwt.security.service.TestAccessTokenKeys;
+import ait.cohort51.g_51_security_jwt.security.service.TokenService;
+import ait.cohort51.g_51_security_jwt.security.service.UserService;
+import ait.cohort51.g_51_security_jwt.security.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenFilterTest {
+
+    private static final String ACCESS_PHRASE = "wNFuHjcqszGQdYqEYs7r/yMBJ8kIlWSpA6vX8asTA70=";
+    private static final String REFRESH_PHRASE = "Sg7YpytnEVjB6gGN5IT6jKkC/0YDmDbo9vxYBt0Zm48=";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Кэш проверенных токенов выключен, чтобы каждый запрос проходил через resolveUser
+    private final VerifiedTokenCache tokenCache = new VerifiedTokenCache(meterRegistry, false, 100);
+    private final TokenService tokenService =
+            new TokenService(TestAccessTokenKeys.hmac(ACCESS_PHRASE), REFRESH_PHRASE, Duration.ofHours(1));
+    private RecordingUserService userService;
+
+    @BeforeEach
+    public void setUp() {
+        userService = new RecordingUserService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void checkClaimsModeAuthenticatesWithoutDatabase() throws Exception {
+        String token = tokenService.generateAccessToken("admin@test.com", 42L, Role.ROLE_ADMIN);
+
+        Authentication authentication = filter(AuthenticationMode.CLAIMS, token);
+
+        assertNotNull(authentication, "Request with a valid token should be authenticated");
+        AuthUserDetails principal = (AuthUserDetails) authentication.getPrincipal();
+        assertEquals("admin@test.com", principal.getUsername(), "Unexpected username");
+        assertEquals(42L, principal.getId(), "User id should come from the token");
+        assertEquals(Role.ROLE_ADMIN, principal.getRole(), "Role should come from the token");
+        assertNull(principal.getPassword(), "Claims-based user should not carry a password hash");
+        assertTrue(userService.loaded.isEmpty(), "Claims mode should not load the user from the database");
+    }
+
+    @Test
+    public void checkClaimsModeFallsBackToDatabaseWithoutRoleClaim() throws Exception {
+        // Токен старого формата: без uid и role
+        String token = tokenService.generateAccessToken("user@test.com");
+
+        Authentication authentication = filter(AuthenticationMode.CLAIMS, token);
+
+        assertNotNull(authentication, "Legacy token should still authenticate");
+        assertEquals(List.of("user@test.com"), userService.loaded, "User should be loaded from the database");
+        assertEquals(Role.ROLE_USER, ((AuthUserDetails) authentication.getPrincipal()).getRole(),
+                "Role should come from the database");
+    }
+
+    @Test
+    public void checkDatabaseModeIgnoresRoleClaim() throws Exception {
+        // В токене ADMIN, в базе уже USER: строгий режим должен взять роль из базы
+        String token = tokenService.generateAccessToken("user@test.com", 7L, Role.ROLE_ADMIN);
+
+        Authentication authentication = filter(AuthenticationMode.DATABASE, token);
+
+        assertNotNull(authentication, "Request with a valid token should be authenticated");
+        assertEquals(List.of("user@test.com"), userService.loaded, "Database mode should load the user on each request");
+        assertEquals(Role.ROLE_USER, ((AuthUserDetails) authentication.getPrincipal()).getRole(),
+                "Role should come from the database, not from the token");
+    }
+
+    @Test
+    public void checkDatabaseModeSeesUserChangesWithSameToken() throws Exception {
+        // Кэш включён, как в production: строгий режим всё равно не должен им пользоваться
+        VerifiedTokenCache enabledCache = new VerifiedTokenCache(meterRegistry, true, 100);
+        String token = tokenService.generateAccessToken("user@test.com", 7L, Role.ROLE_ADMIN);
+
+        userService.role = Role.ROLE_ADMIN;
+        Authentication first = filter(AuthenticationMode.DATABASE, enabledCache, token);
+        assertEquals(Role.ROLE_ADMIN, ((AuthUserDetails) first.getPrincipal()).getRole());
+
+        SecurityContextHolder.clearContext();
+        userService.role = Role.ROLE_USER;
+        Authentication second = filter(AuthenticationMode.DATABASE, enabledCache, token);
+
+        assertEquals(Role.ROLE_USER, ((AuthUserDetails) second.getPrincipal()).getRole(),
+                "Role change should be visible on the next request with the same token");
+        assertEquals(List.of("user@test.com", "user@test.com"), userService.loaded,
+                "Database mode should load the user on every request");
+    }
+
+    @Test
+    public void checkClaimsModeServesRepeatedTokenFromCache() throws Exception {
+        VerifiedTokenCache enabledCache = new VerifiedTokenCache(meterRegistry, true, 100);
+        // Токен без роли: первый запрос идёт в базу, повторный берётся из кэша
+        String token = tokenService.generateAccessToken("user@test.com");
+
+        filter(AuthenticationMode.CLAIMS, enabledCache, token);
+        SecurityContextHolder.clearContext();
+        assertNotNull(filter(AuthenticationMode.CLAIMS, enabledCache, token), "Cached token should authenticate");
+
+        assertEquals(List.of("user@test.com"), userService.loaded, "Repeated token should be served from the cache");
+    }
+
+    @Test
+    public void checkInvalidTokenLeavesRequestAnonymous() throws Exception {
+        assertNull(filter(AuthenticationMode.CLAIMS, "not-a-token"), "Invalid token should not authenticate");
+        assertTrue(userService.loaded.isEmpty(), "Invalid token should not reach the database");
+    }
+
+    private Authentication filter(AuthenticationMode mode, String token) throws Exception {
+        return filter(mode, tokenCache, token);
+    }
+
+    private Authentication filter(AuthenticationMode mode, VerifiedTokenCache cache, String token) throws Exception {
+        TokenFilter filter = new TokenFilter(
+                tokenService, userService, cache, new RevocationRegistry(1000, 0.001), mode, meterRegistry
+        );
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/1");
+        request.setCookies(new Cookie("Access-Token", token));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest(), "Filter should always pass the request on");
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    // Вместо базы: запоминает, чьи данные загружались, и отдаёт текущее значение role
+    private class RecordingUserService extends UserService {
+
+        private final List<String> loaded = new ArrayList<>();
+        private Role role = Role.ROLE_USER;
+
+        private RecordingUserService() {
+            super(null, tokenCache, meterRegistry, false, Duration.ofMinutes(5), 100);
+        }
+
+        @Override
+        public UserDetails loadUserByUsername(String username) {
+            loaded.add(username);
+            return new AuthUserDetails(1L, username, "{bcrypt}hash", role);
+        }
+    }
+}
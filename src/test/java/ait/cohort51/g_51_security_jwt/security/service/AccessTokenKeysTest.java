@@ -0,0 +1,129 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenKeysTest {
+
+    private static final String ACCESS_PHRASE = "wNFuHjcqszGQdYqEYs7r/yMBJ8kIlWSpA6vX8asTA70=";
+    private static final String REFRESH_PHRASE = "Sg7YpytnEVjB6gGN5IT6jKkC/0YDmDbo9vxYBt0Zm48=";
+    private static final Duration ACCESS_TTL = Duration.ofHours(24);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    private Path keyFile;
+    private PrivateJwk<?, ?, ?> first;
+    private PrivateJwk<?, ?, ?> second;
+
+    @BeforeEach
+    public void setUp() {
+        keyFile = directory.resolve("keys.json");
+        first = Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id("first").build();
+        second = Jwks.builder().keyPair(Jwts.SIG.ES256.keyPair().build()).id("second").build();
+    }
+
+    @Test
+    public void checkRotationKeepsIssuedTokensValid() throws Exception {
+        writeRing(entry(first, "active"), entry(second, "verify-only"));
+        AccessTokenKeys keys = keysFromFile();
+        TokenService tokenService = new TokenService(keys, REFRESH_PHRASE, ACCESS_TTL);
+
+        String oldToken = tokenService.generateAccessToken("user@test.com");
+        assertEquals("first", keys.signingKey().kid(), "Unexpected active key");
+        assertEquals(2, ((List<?>) keys.jwks().get("keys")).size(), "Both keys should be published");
+
+        // Шаг 2 ротации: новый ключ подписывает, старый только проверяет
+        writeRing(entry(first, "verify-only"), entry(second, "active"));
+        keys.reload();
+
+        String newToken = tokenService.generateAccessToken("user@test.com");
+        assertEquals("second", keys.signingKey().kid(), "Active key should be switched");
+        assertTrue(tokenService.verifyAccessToken(oldToken).isValid(), "Token of the previous key should stay valid");
+        assertTrue(tokenService.verifyAccessToken(newToken).isValid(), "Token of the new key should be valid");
+
+        // Шаг 3: старый ключ отозван
+        writeRing(entry(first, "retired"), entry(second, "active"));
+        keys.reload();
+
+        assertEquals(TokenVerification.Status.INVALID, tokenService.verifyAccessToken(oldToken).getStatus());
+        assertTrue(tokenService.verifyAccessToken(newToken).isValid(), "Token of the active key should be valid");
+        assertEquals(1, ((List<?>) keys.jwks().get("keys")).size(), "Retired key should not be published");
+    }
+
+    @Test
+    public void checkBrokenFileKeepsPreviousRing() throws Exception {
+        writeRing(entry(first, "active"));
+        AccessTokenKeys keys = keysFromFile();
+
+        // Два активных ключа - ошибка конфигурации
+        writeRing(entry(first, "active"), entry(second, "active"));
+        assertThrows(IllegalStateException.class, keys::reload);
+        assertEquals("first", keys.signingKey().kid(), "Previous ring should stay in effect");
+
+        Files.writeString(keyFile, "{\"keys\": [");
+        assertThrows(RuntimeException.class, keys::reload);
+        assertEquals("first", keys.signingKey().kid(), "Previous ring should stay in effect");
+    }
+
+    @Test
+    public void checkLookupByKid() throws Exception {
+        writeRing(entry(first, "active"), entry(second, "verify-only"));
+        AccessTokenKeys keys = keysFromFile();
+
+        assertEquals(first.toPublicJwk().toKey(), keys.verificationKey("first"));
+        assertEquals(second.toPublicJwk().toKey(), keys.verificationKey("second"));
+        assertNull(keys.verificationKey("unknown"), "Unknown kid should have no key");
+        assertNotNull(keys.verificationKey(null), "Token without kid should use the legacy key");
+    }
+
+    @Test
+    public void checkLegacyHmacIsTimeBoxed() throws Exception {
+        writeRing(entry(first, "active"));
+
+        AccessTokenKeys expired = new AccessTokenKeys(new VerifiedTokenCache(new SimpleMeterRegistry(), true, 100), ACCESS_PHRASE,
+                SigningAlgorithm.ES256, keyFile.toString(), true, "2000-01-01T00:00:00Z");
+        assertNull(expired.verificationKey(null), "Legacy HMAC should be rejected after the deadline");
+
+        AccessTokenKeys inTime = new AccessTokenKeys(new VerifiedTokenCache(new SimpleMeterRegistry(), true, 100), ACCESS_PHRASE,
+                SigningAlgorithm.ES256, keyFile.toString(), true, "2999-01-01T00:00:00Z");
+        assertNotNull(inTime.verificationKey(null), "Legacy HMAC should be accepted before the deadline");
+
+        assertThrows(IllegalStateException.class, () -> new AccessTokenKeys(new VerifiedTokenCache(new SimpleMeterRegistry(), true, 100),
+                ACCESS_PHRASE, SigningAlgorithm.HMAC, "", false, ""), "Plain hmac mode cannot reject its own tokens");
+    }
+
+    private AccessTokenKeys keysFromFile() {
+        return new AccessTokenKeys(
+                new VerifiedTokenCache(new SimpleMeterRegistry(), true, 100), ACCESS_PHRASE, SigningAlgorithm.HMAC, keyFile.toString(), null, ""
+        );
+    }
+
+    private Map<String, Object> entry(PrivateJwk<?, ?, ?> jwk, String status) throws Exception {
+        Map<String, Object> entry = new LinkedHashMap<>(mapper.readValue(Jwks.UNSAFE_JSON(jwk), Map.class));
+        entry.put("status", status);
+        return entry;
+    }
+
+    @SafeVarargs
+    private void writeRing(Map<String, Object>... entries) throws Exception {
+        Files.writeString(keyFile, mapper.writeValueAsString(Map.of("keys", List.of(entries))));
+    }
+}
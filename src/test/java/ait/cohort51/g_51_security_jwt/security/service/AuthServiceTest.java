@@ -0,0 +1,128 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.domain.User;
+import ait.cohort51.g_51_security_jwt.repository.UserRepository;
+import ait.cohort51.g_51_security_jwt.security.dto.LoginRequestDto;
+import ait.cohort51.g_51_security_jwt.security.dto.TokenResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Текущая стоимость BCrypt - 5, хэши со стоимостью 4 считаются устаревшими
+@SpringBootTest(properties = "security.password.strength=5")
+@ActiveProfiles("h2")
+class AuthServiceTest {
+
+    private static final String EMAIL = "upgrade@test.com";
+    private static final String PASSWORD = "secret";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        userService.evict(EMAIL);
+    }
+
+    @Test
+    public void checkLowCostHashUpgradedAfterLogin() {
+        saveUser("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+        assertNotNull(login(PASSWORD), "Login with a low-cost hash should succeed");
+
+        String upgraded = userRepository.findByEmail(EMAIL).orElseThrow().getPassword();
+        assertTrue(upgraded.startsWith("{bcrypt}$2a$05$"), "Hash should be re-encoded with the current cost: " + upgraded);
+        assertNotNull(login(PASSWORD), "Login with the upgraded hash should succeed");
+    }
+
+    @Test
+    public void checkLegacyHashWithoutPrefixUpgradedAfterLogin() {
+        saveUser(new BCryptPasswordEncoder(5).encode(PASSWORD));
+
+        assertNotNull(login(PASSWORD), "Login with a legacy hash should succeed");
+
+        String upgraded = userRepository.findByEmail(EMAIL).orElseThrow().getPassword();
+        assertTrue(upgraded.startsWith("{bcrypt}"), "Legacy hash should get the encoder id: " + upgraded);
+    }
+
+    @Test
+    public void checkCurrentHashAndWrongPasswordNotRewritten() {
+        String current = "{bcrypt}" + new BCryptPasswordEncoder(5).encode(PASSWORD);
+        saveUser(current);
+        long hashes = meterRegistry.get("auth.password.hash").timer().count();
+
+        assertNotNull(login(PASSWORD), "Login with a current hash should succeed");
+        assertEquals(current, userRepository.findByEmail(EMAIL).orElseThrow().getPassword(),
+                "Current hash should not be rewritten");
+
+        userService.evict(EMAIL);
+        saveLowCostHash();
+        assertNull(login("wrong"), "Wrong password should not log in");
+        assertTrue(userRepository.findByEmail(EMAIL).orElseThrow().getPassword().startsWith("{bcrypt}$2a$04$"),
+                "Hash should not be upgraded after a failed login");
+        assertEquals(hashes + 2, meterRegistry.get("auth.password.hash").timer().count(),
+                "Each login should record exactly one hash check");
+    }
+
+    @Test
+    public void checkReplayedRefreshTokenGetsNoAccessTokenInGraceWindow() {
+        saveUser("{bcrypt}" + new BCryptPasswordEncoder(5).encode(PASSWORD));
+        TokenResponseDto loggedIn = login(PASSWORD);
+
+        TokenResponseDto refreshed = authService.getAccessToken(refreshRequest(loggedIn.getRefreshToken()));
+        assertNotNull(refreshed, "First refresh should rotate the token");
+        assertNotNull(refreshed.getAccessToken());
+        assertNotNull(refreshed.getRefreshToken(), "Rotation should always issue a new refresh token");
+
+        // Повтор сразу после обмена (в окне reuse-grace-period): токенов нет, но сессия жива
+        assertNull(authService.getAccessToken(refreshRequest(loggedIn.getRefreshToken())),
+                "Replayed refresh token should not get an access token");
+        assertNotNull(authService.getAccessToken(refreshRequest(refreshed.getRefreshToken())),
+                "Family should not be revoked inside the grace window");
+    }
+
+    private TokenResponseDto login(String password) {
+        LoginRequestDto request = new LoginRequestDto();
+        request.setUsername(EMAIL);
+        request.setPassword(password);
+        return authService.login(request).join();
+    }
+
+    private static MockHttpServletRequest refreshRequest(String refreshToken) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/access");
+        request.setCookies(new Cookie("Refresh-Token", refreshToken));
+        return request;
+    }
+
+    private void saveLowCostHash() {
+        userRepository.updatePasswordByEmail(EMAIL, "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+    }
+
+    private void saveUser(String passwordHash) {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setName("Upgrade");
+        user.setRole(Role.ROLE_USER);
+        user.setPassword(passwordHash);
+        userRepository.save(user);
+    }
+}
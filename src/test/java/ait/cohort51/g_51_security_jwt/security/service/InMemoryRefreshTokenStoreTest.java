@@ -0,0 +1,83 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRefreshTokenStoreTest {
+
+    private static final String USERNAME = "user@test.com";
+    private static final String FAMILY = "family";
+
+    private final Instant expiresAt = Instant.now().plus(Duration.ofDays(1));
+
+    @Test
+    public void checkRotationInvalidatesPreviousToken() {
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(Duration.ZERO);
+        store.save(USERNAME, FAMILY, "first", expiresAt);
+
+        assertEquals(RefreshRotation.ROTATED, store.rotate(USERNAME, FAMILY, "first", "second", expiresAt));
+        assertEquals(RefreshRotation.ROTATED, store.rotate(USERNAME, FAMILY, "second", "third", expiresAt));
+        assertEquals(RefreshRotation.NOT_FOUND, store.rotate("other@test.com", FAMILY, "third", "fourth", expiresAt));
+    }
+
+    @Test
+    public void checkReuseRevokesWholeFamily() {
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(Duration.ZERO);
+        store.save(USERNAME, FAMILY, "first", expiresAt);
+        store.save(USERNAME, "other-session", "other", expiresAt);
+        store.rotate(USERNAME, FAMILY, "first", "second", expiresAt);
+
+        // Украденный "first" предъявлен после обмена
+        assertEquals(RefreshRotation.REUSED, store.rotate(USERNAME, FAMILY, "first", "stolen", expiresAt));
+
+        assertEquals(RefreshRotation.NOT_FOUND, store.rotate(USERNAME, FAMILY, "second", "third", expiresAt));
+        assertEquals(RefreshRotation.NOT_FOUND, store.rotate(USERNAME, FAMILY, "stolen", "fourth", expiresAt));
+        assertEquals(RefreshRotation.ROTATED, store.rotate(USERNAME, "other-session", "other", "other-2", expiresAt),
+                "Other sessions of the user should not be affected");
+    }
+
+    @Test
+    public void checkParallelRefreshesRotateOnce() throws Exception {
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(Duration.ofSeconds(10));
+        store.save(USERNAME, FAMILY, "first", expiresAt);
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<RefreshRotation>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String newToken = "next-" + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.rotate(USERNAME, FAMILY, "first", newToken, expiresAt);
+                }));
+            }
+            start.countDown();
+
+            int rotated = 0;
+            for (Future<RefreshRotation> result : results) {
+                RefreshRotation rotation = result.get();
+                if (rotation == RefreshRotation.ROTATED) {
+                    rotated++;
+                } else {
+                    // Остальные вкладки попадают в окно параллельного обмена, сессия не отзывается
+                    assertEquals(RefreshRotation.CONCURRENT, rotation);
+                }
+            }
+            assertEquals(1, rotated, "Exactly one refresh should win the rotation");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
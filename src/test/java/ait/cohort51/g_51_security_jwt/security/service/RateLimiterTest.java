@@ -0,0 +1,77 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    public void checkBurstThenReject() {
+        RateLimiter limiter = new RateLimiter(5, Duration.ofMinutes(1), Duration.ofMinutes(10), 1000);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"), "Request within capacity should pass");
+        }
+        long retryAfter = limiter.tryAcquire("10.0.0.1");
+
+        assertTrue(retryAfter > 0, "Request over capacity should be rejected");
+        // Следующий токен появляется через period / capacity = 12 секунд
+        assertTrue(retryAfter <= Duration.ofSeconds(12).toNanos(), "Unexpected retry delay " + retryAfter);
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"), "Other keys should have their own bucket");
+    }
+
+    @Test
+    public void checkTokensRefillOverTime() throws Exception {
+        RateLimiter limiter = new RateLimiter(2, Duration.ofMillis(200), Duration.ofMinutes(10), 1000);
+        limiter.tryAcquire("key");
+        limiter.tryAcquire("key");
+        assertTrue(limiter.tryAcquire("key") > 0, "Bucket should be empty");
+
+        Thread.sleep(150);
+
+        assertEquals(0, limiter.tryAcquire("key"), "One token should be refilled");
+    }
+
+    @Test
+    public void checkConcurrentRequestsNeverExceedCapacity() throws Exception {
+        int capacity = 50;
+        RateLimiter limiter = new RateLimiter(capacity, Duration.ofHours(1), Duration.ofMinutes(10), 1000);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int j = 0; j < 100; j++) {
+                        if (limiter.tryAcquire("shared") == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get();
+            }
+            assertEquals(capacity, allowed, "Exactly capacity requests should pass");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationRegistryTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    private RevocationRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new RevocationRegistry(1000, 0.001);
+    }
+
+    @Test
+    public void checkRevokedTokenIsDetected() {
+        String jti = UUID.randomUUID().toString();
+        registry.revoke(jti, System.currentTimeMillis() + HOUR);
+
+        assertTrue(registry.isRevoked(jti), "Revoked jti should be detected");
+        assertFalse(registry.isRevoked(UUID.randomUUID().toString()), "Other jti should not be revoked");
+        assertFalse(registry.isRevoked(null), "Token without jti cannot be revoked");
+    }
+
+    @Test
+    public void checkNoFalsePositivesForManyTokens() {
+        long expiresAt = System.currentTimeMillis() + HOUR;
+        for (int i = 0; i < 5000; i++) {
+            registry.revoke(UUID.randomUUID().toString(), expiresAt);
+        }
+
+        // Ложные срабатывания фильтра Блума отсекает точное множество
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(registry.isRevoked(UUID.randomUUID().toString()), "Unrevoked jti reported as revoked");
+        }
+    }
+
+    @Test
+    public void checkExpiredEntriesAreRemoved() {
+        String live = UUID.randomUUID().toString();
+        String expiring = UUID.randomUUID().toString();
+        registry.revoke(live, System.currentTimeMillis() + HOUR);
+        registry.revoke(expiring, System.currentTimeMillis() + 50);
+
+        await(100);
+
+        assertEquals(1, registry.removeExpired(), "One entry should expire");
+        assertEquals(1, registry.size(), "Unexpected registry size");
+        assertTrue(registry.isRevoked(live), "Live entry should survive the filter rebuild");
+        assertFalse(registry.isRevoked(expiring), "Expired entry should be removed");
+    }
+
+    private void await(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
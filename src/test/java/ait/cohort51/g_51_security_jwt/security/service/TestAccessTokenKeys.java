@@ -0,0 +1,24 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Ключи подписи для тестов без Spring-контекста: без файла ключей и с выключенным кэшем токенов
+public final class TestAccessTokenKeys {
+
+    private TestAccessTokenKeys() {
+    }
+
+    public static AccessTokenKeys hmac(String accessPhrase) {
+        return ephemeral(accessPhrase, SigningAlgorithm.HMAC);
+    }
+
+    // Для ES256/EdDSA пара ключей генерируется заново при каждом вызове
+    public static AccessTokenKeys ephemeral(String accessPhrase, SigningAlgorithm algorithm) {
+        return ephemeral(accessPhrase, algorithm, null);
+    }
+
+    public static AccessTokenKeys ephemeral(String accessPhrase, SigningAlgorithm algorithm, Boolean acceptLegacyHmac) {
+        VerifiedTokenCache tokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), false, 1);
+        return new AccessTokenKeys(tokenCache, accessPhrase, algorithm, "", acceptLegacyHmac, "");
+    }
+}
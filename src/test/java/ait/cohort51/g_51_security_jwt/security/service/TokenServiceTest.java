@@ -0,0 +1,126 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String ACCESS_PHRASE = "wNFuHjcqszGQdYqEYs7r/yMBJ8kIlWSpA6vX8asTA70=";
+    private static final String REFRESH_PHRASE = "Sg7YpytnEVjB6gGN5IT6jKkC/0YDmDbo9vxYBt0Zm48=";
+    private static final Duration ACCESS_TTL = Duration.ofHours(24);
+
+    private TokenService tokenService;
+
+    @BeforeEach
+    public void setUp() {
+        tokenService = new TokenService(TestAccessTokenKeys.hmac(ACCESS_PHRASE), REFRESH_PHRASE, ACCESS_TTL);
+    }
+
+    @Test
+    public void checkValidAccessTokenReturnsClaims() {
+        String token = tokenService.generateAccessToken("user@test.com");
+
+        TokenVerification verification = tokenService.verifyAccessToken(token);
+
+        assertEquals(TokenVerification.Status.VALID, verification.getStatus(), "Unexpected verification status");
+        assertEquals("user@test.com", verification.getClaims().getSubject(), "Unexpected subject");
+    }
+
+    @Test
+    public void checkAccessTokenCarriesUserIdAndRole() {
+        String token = tokenService.generateAccessToken("admin@test.com", 42L, Role.ROLE_ADMIN);
+
+        Claims claims = tokenService.verifyAccessToken(token).getClaims();
+
+        assertEquals(42L, claims.get(TokenService.USER_ID_CLAIM, Long.class), "Unexpected user id claim");
+        assertEquals("ROLE_ADMIN", claims.get(TokenService.ROLE_CLAIM, String.class), "Unexpected role claim");
+        assertNotNull(claims.getId(), "Access token should carry a jti");
+    }
+
+    @Test
+    public void checkRefreshTokenIsRejectedAsAccessToken() {
+        String token = tokenService.generateRefreshToken("user@test.com");
+
+        assertEquals(TokenVerification.Status.INVALID, tokenService.verifyAccessToken(token).getStatus());
+        assertTrue(tokenService.verifyRefreshToken(token).isValid(), "Refresh token should be valid");
+    }
+
+    @Test
+    public void checkExpiredTokenStatus() {
+        // Подписываем токен правильным ключом, но с истёкшим сроком действия
+        String token = Jwts.builder()
+                .subject("user@test.com")
+                .expiration(new Date(System.currentTimeMillis() - 60 * 1000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(ACCESS_PHRASE)))
+                .compact();
+
+        assertEquals(TokenVerification.Status.EXPIRED, tokenService.verifyAccessToken(token).getStatus());
+    }
+
+    @Test
+    public void checkMissingAndMalformedTokens() {
+        assertEquals(TokenVerification.Status.MISSING, tokenService.verifyAccessToken(null).getStatus());
+        assertEquals(TokenVerification.Status.MISSING, tokenService.verifyAccessToken("").getStatus());
+        assertEquals(TokenVerification.Status.INVALID, tokenService.verifyAccessToken("not.a.jwt").getStatus());
+    }
+
+    @Test
+    public void checkAsymmetricTokenVerifiesWithPublishedKey() throws Exception {
+        AccessTokenKeys keys = TestAccessTokenKeys.ephemeral(ACCESS_PHRASE, SigningAlgorithm.ES256);
+        TokenService service = new TokenService(keys, REFRESH_PHRASE, ACCESS_TTL);
+        String token = service.generateAccessToken("user@test.com", 1L, Role.ROLE_USER);
+
+        assertTrue(service.verifyAccessToken(token).isValid(), "ES256 token should be valid");
+
+        // Сторонний сервис получает JWKS в виде JSON и проверяет токен только открытым ключом
+        String json = new ObjectMapper().writeValueAsString(keys.jwks());
+        Jwk<?> jwk = Jwks.setParser().build().parse(json).getKeys().iterator().next();
+        Jws<Claims> jws = Jwts.parser().verifyWith((PublicKey) jwk.toKey()).build().parseSignedClaims(token);
+
+        assertFalse(json.contains("\"d\""), "Private key must not be published");
+        assertEquals(jwk.getId(), jws.getHeader().getKeyId(), "Token kid should match the published key");
+        assertEquals("user@test.com", jws.getPayload().getSubject(), "Unexpected subject");
+    }
+
+    @Test
+    public void checkLegacyHmacTokenRejectedInAsymmetricMode() {
+        TokenService eddsaService = new TokenService(
+                TestAccessTokenKeys.ephemeral(ACCESS_PHRASE, SigningAlgorithm.EDDSA), REFRESH_PHRASE, ACCESS_TTL
+        );
+        String legacyToken = tokenService.generateAccessToken("user@test.com");
+
+        assertEquals(TokenVerification.Status.INVALID, eddsaService.verifyAccessToken(legacyToken).getStatus(),
+                "Token without kid must not be accepted with the shared secret by default");
+
+        TokenService migratingService = new TokenService(
+                TestAccessTokenKeys.ephemeral(ACCESS_PHRASE, SigningAlgorithm.EDDSA, true), REFRESH_PHRASE, ACCESS_TTL
+        );
+        assertTrue(migratingService.verifyAccessToken(legacyToken).isValid(),
+                "Token without kid should be accepted when legacy HMAC is enabled explicitly");
+    }
+
+    @Test
+    public void checkUnknownKidIsInvalid() {
+        TokenService first = new TokenService(TestAccessTokenKeys.ephemeral(ACCESS_PHRASE, SigningAlgorithm.ES256), REFRESH_PHRASE, ACCESS_TTL);
+        TokenService second = new TokenService(TestAccessTokenKeys.ephemeral(ACCESS_PHRASE, SigningAlgorithm.ES256), REFRESH_PHRASE, ACCESS_TTL);
+
+        String token = first.generateAccessToken("user@test.com");
+
+        assertEquals(TokenVerification.Status.INVALID, second.verifyAccessToken(token).getStatus());
+    }
+}
@@ -0,0 +1,58 @@
+package ait.cohort51.g_51_security_jwt.security.service;
+
+import ait.cohort51.g_51_security_jwt.domain.Role;
+import ait.cohort51.g_51_security_jwt.security.AuthUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, true, 100);
+
+    @Test
+    public void checkEntryExpiresWithToken() throws Exception {
+        cache.put("short", user("user@test.com"), "jti-1", new Date(System.currentTimeMillis() + 200));
+        cache.put("expired", user("user@test.com"), "jti-2", new Date(System.currentTimeMillis() - 1000));
+
+        assertNotNull(cache.get("short"), "Token should be cached until exp");
+        assertEquals("jti-1", cache.get("short").getJti());
+        assertNull(cache.get("expired"), "Expired token should not be cached");
+
+        Thread.sleep(300);
+
+        assertNull(cache.get("short"), "Entry should expire at the token's exp");
+    }
+
+    @Test
+    public void checkInvalidateSubject() {
+        Date exp = new Date(System.currentTimeMillis() + 60_000);
+        cache.put("first", user("user@test.com"), "jti-1", exp);
+        cache.put("second", user("user@test.com"), "jti-2", exp);
+        cache.put("other", user("other@test.com"), "jti-3", exp);
+
+        cache.invalidateSubject("user@test.com");
+
+        assertNull(cache.get("first"), "All tokens of the subject should be removed");
+        assertNull(cache.get("second"), "All tokens of the subject should be removed");
+        assertNotNull(cache.get("other"), "Tokens of other users should stay");
+    }
+
+    @Test
+    public void checkStatsAreExported() {
+        cache.put("token", user("user@test.com"), "jti", new Date(System.currentTimeMillis() + 60_000));
+        cache.get("token");
+        cache.get("missing");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tokens").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tokens").tag("result", "miss").functionCounter().count());
+    }
+
+    private static AuthUserDetails user(String email) {
+        return new AuthUserDetails(1L, email, "hash", Role.ROLE_USER);
+    }
+}
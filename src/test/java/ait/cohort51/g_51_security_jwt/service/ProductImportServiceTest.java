@@ -0,0 +1,125 @@
+package ait.cohort51.g_51_security_jwt.service;
+
+import ait.cohort51.g_51_security_jwt.dto.ProductImportReport;
+import ait.cohort51.g_51_security_jwt.repository.ProductJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportServiceTest {
+
+    private RecordingRepository repository;
+    private ProductImportService service;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:product-import;DB_CLOSE_DELAY=-1");
+        repository = new RecordingRepository(dataSource);
+        service = new ProductImportService(
+                repository,
+                new ProductCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new DataSourceTransactionManager(dataSource),
+                3,
+                10
+        );
+    }
+
+    @Test
+    public void checkSplitCsvLine() {
+        assertEquals(List.of("apple", "1.50"), ProductImportService.splitCsvLine("apple,1.50"));
+        assertEquals(List.of("apple, green", "2"), ProductImportService.splitCsvLine("\"apple, green\",2"),
+                "Comma inside quotes should stay in the field");
+        assertEquals(List.of("say \"hi\"", "3"), ProductImportService.splitCsvLine("\"say \"\"hi\"\"\",3"),
+                "Doubled quote should become a single quote");
+        assertEquals(List.of("", ""), ProductImportService.splitCsvLine(","));
+        assertNull(ProductImportService.splitCsvLine("\"apple,1"), "Unterminated quote should be reported");
+    }
+
+    @Test
+    public void checkImportSkipsHeaderAndBlankLines() throws Exception {
+        ProductImportReport report = importCsv("title,price\n\napple,1.50\n   \n\"pear, ripe\",2\n");
+
+        assertEquals(2, report.getProcessedRows(), "Header and blank lines are not rows");
+        assertEquals(2, report.getImportedRows());
+        assertEquals(List.of("apple", "pear, ripe"), repository.titles);
+        assertEquals(List.of(new BigDecimal("1.50"), new BigDecimal("2")), repository.prices);
+    }
+
+    @Test
+    public void checkInvalidRowsAreRejected() throws Exception {
+        ProductImportReport report = importCsv("apple,abc\n,1\nplum,1.999\nfig\n\"open,1\nkiwi,3\n");
+
+        assertEquals(6, report.getProcessedRows());
+        assertEquals(1, report.getImportedRows());
+        assertEquals(5, report.getRejectedRows());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L),
+                report.getRejected().stream().map(ProductImportReport.RejectedRow::getLine).toList());
+        assertTrue(report.getRejected().get(0).getReason().startsWith("Price is not a number"));
+        assertEquals("Title is required", report.getRejected().get(1).getReason());
+        assertEquals(List.of("kiwi"), repository.titles);
+    }
+
+    @Test
+    public void checkDuplicateTitleInBatchLastRowWins() throws Exception {
+        ProductImportReport report = importCsv("apple,1\npear,2\napple,3\nplum,4\n");
+
+        assertEquals(4, report.getImportedRows(), "Superseded row still counts as imported");
+        assertEquals(0, report.getRejectedRows());
+        // Первая пачка: apple и pear, apple с ценой из последней строки
+        assertEquals(List.of(List.of("apple", "pear"), List.of("plum")), repository.batches);
+        assertEquals(new BigDecimal("3"), repository.prices.get(0), "Last row should win");
+    }
+
+    @Test
+    public void checkFailedBatchIsReportedAndImportContinues() throws Exception {
+        repository.failingBatch = 0;
+
+        ProductImportReport report = importCsv("apple,1\npear,2\nplum,3\nfig,4\n");
+
+        assertEquals(1, report.getImportedRows(), "Second batch should still be written");
+        assertEquals(3, report.getRejectedRows(), "All rows of the failed batch should be rejected");
+        assertTrue(report.getRejected().get(0).getReason().startsWith("Batch write failed"));
+        assertEquals(List.of(1L, 2L, 3L),
+                report.getRejected().stream().map(ProductImportReport.RejectedRow::getLine).toList());
+    }
+
+    private ProductImportReport importCsv(String csv) throws Exception {
+        return service.importCsv(new StringReader(csv));
+    }
+
+    private static class RecordingRepository extends ProductJdbcRepository {
+
+        private final List<List<String>> batches = new ArrayList<>();
+        private final List<String> titles = new ArrayList<>();
+        private final List<BigDecimal> prices = new ArrayList<>();
+        private int failingBatch = -1;
+
+        RecordingRepository(DataSource dataSource) {
+            super(dataSource, 10);
+        }
+
+        @Override
+        public int[] upsertBatch(List<String> batchTitles, List<BigDecimal> batchPrices) {
+            if (batches.size() == failingBatch) {
+                batches.add(List.of());
+                throw new DataIntegrityViolationException("ON CONFLICT DO UPDATE command cannot affect row a second time");
+            }
+            batches.add(List.copyOf(batchTitles));
+            titles.addAll(batchTitles);
+            prices.addAll(batchPrices);
+            return new int[batchTitles.size()];
+        }
+    }
+}